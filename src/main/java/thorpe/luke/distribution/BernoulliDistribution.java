@@ -2,7 +2,7 @@ package thorpe.luke.distribution;
 
 import java.util.Random;
 
-public class BernoulliDistribution implements Distribution<Boolean> {
+public class BernoulliDistribution implements BooleanDistribution {
 
   private final double probability;
 
@@ -12,10 +12,18 @@ public class BernoulliDistribution implements Distribution<Boolean> {
   }
 
   @Override
-  public Boolean sample(Random random) {
+  public boolean sampleAsBoolean(Random random) {
     return random.nextDouble() < probability;
   }
 
+  @Override
+  public void sample(Random random, boolean[] out, int n) {
+    double probability = this.probability;
+    for (int i = 0; i < n; i++) {
+      out[i] = random.nextDouble() < probability;
+    }
+  }
+
   @Override
   public Double mean() {
     return probability;
@@ -0,0 +1,18 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public interface BooleanDistribution extends Distribution<Boolean> {
+  boolean sampleAsBoolean(Random random);
+
+  @Override
+  default Boolean sample(Random random) {
+    return sampleAsBoolean(random);
+  }
+
+  default void sample(Random random, boolean[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = sampleAsBoolean(random);
+    }
+  }
+}
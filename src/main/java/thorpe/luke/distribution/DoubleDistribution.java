@@ -0,0 +1,18 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public interface DoubleDistribution extends Distribution<Double> {
+  double sampleAsDouble(Random random);
+
+  @Override
+  default Double sample(Random random) {
+    return sampleAsDouble(random);
+  }
+
+  default void sample(Random random, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = sampleAsDouble(random);
+    }
+  }
+}
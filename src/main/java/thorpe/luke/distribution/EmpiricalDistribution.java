@@ -0,0 +1,95 @@
+package thorpe.luke.distribution;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class EmpiricalDistribution implements DoubleDistribution {
+
+  // Equally spaced quantiles, from the 0th up to the 100th percentile. Sampling only ever reads
+  // the buffer by absolute index, so a single mapping can be shared between many connections.
+  private final DoubleBuffer quantiles;
+  private final int lastIndex;
+  private final double mean;
+  private final double variance;
+
+  public EmpiricalDistribution(DoubleBuffer quantiles) {
+    if (quantiles.remaining() == 0) {
+      throw new EmpiricalDistributionException("Empirical distribution has no quantiles.");
+    }
+    this.quantiles = quantiles.slice();
+    this.lastIndex = this.quantiles.limit() - 1;
+    if (lastIndex == 0) {
+      this.mean = this.quantiles.get(0);
+      this.variance = 0.0;
+      return;
+    }
+    double firstMoment = 0.0;
+    double secondMoment = 0.0;
+    for (int i = 0; i < lastIndex; i++) {
+      double a = this.quantiles.get(i);
+      double b = this.quantiles.get(i + 1);
+      if (b < a) {
+        throw new EmpiricalDistributionException(
+            "Quantile " + (i + 1) + " is less than the quantile before it.");
+      }
+      // Moments of a uniform distribution between neighbouring quantiles.
+      firstMoment += (a + b) / 2.0;
+      secondMoment += (a * a + a * b + b * b) / 3.0;
+    }
+    this.mean = firstMoment / lastIndex;
+    this.variance = Math.max(0.0, secondMoment / lastIndex - mean * mean);
+  }
+
+  public static EmpiricalDistribution fromFile(Path path) {
+    // The file is a list of big-endian doubles in ascending order, as written by a DataOutputStream.
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = fileChannel.size();
+      if (size == 0) {
+        throw new EmpiricalDistributionException("\"" + path + "\" is empty.");
+      }
+      // A single mapping cannot be any bigger than this.
+      if (size > Integer.MAX_VALUE) {
+        throw new EmpiricalDistributionException(
+            "Size of \"" + path + "\" exceeds " + Integer.MAX_VALUE + " bytes.");
+      }
+      if (size % Double.BYTES != 0) {
+        throw new EmpiricalDistributionException(
+            "Size of \"" + path + "\" is not a multiple of " + Double.BYTES + " bytes.");
+      }
+      return new EmpiricalDistribution(
+          fileChannel
+              .map(FileChannel.MapMode.READ_ONLY, 0, size)
+              .order(ByteOrder.BIG_ENDIAN)
+              .asDoubleBuffer());
+    } catch (IOException e) {
+      throw new EmpiricalDistributionException(e);
+    }
+  }
+
+  @Override
+  public double sampleAsDouble(Random random) {
+    if (lastIndex == 0) {
+      return quantiles.get(0);
+    }
+    // Inverse CDF, interpolating linearly between the two nearest quantiles.
+    double position = random.nextDouble() * lastIndex;
+    int index = (int) position;
+    double lower = quantiles.get(index);
+    return lower + (position - index) * (quantiles.get(index + 1) - lower);
+  }
+
+  @Override
+  public Double mean() {
+    return mean;
+  }
+
+  @Override
+  public Double variance() {
+    return variance;
+  }
+}
@@ -0,0 +1,11 @@
+package thorpe.luke.distribution;
+
+public class EmpiricalDistributionException extends RuntimeException {
+  public EmpiricalDistributionException(String message) {
+    super(message);
+  }
+
+  public EmpiricalDistributionException(Exception e) {
+    super(e);
+  }
+}
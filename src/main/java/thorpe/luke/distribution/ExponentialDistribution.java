@@ -2,7 +2,7 @@ package thorpe.luke.distribution;
 
 import java.util.Random;
 
-public class ExponentialDistribution implements Distribution<Double> {
+public class ExponentialDistribution implements DoubleDistribution {
 
   private final double lambda;
 
@@ -12,8 +12,8 @@ public class ExponentialDistribution implements Distribution<Double> {
   }
 
   @Override
-  public Double sample(Random random) {
-    return -Math.log(1.0 - random.nextDouble()) / lambda;
+  public double sampleAsDouble(Random random) {
+    return Ziggurat.sampleStandardExponential(random) / lambda;
   }
 
   @Override
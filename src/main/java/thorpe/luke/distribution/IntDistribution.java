@@ -0,0 +1,18 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public interface IntDistribution extends Distribution<Integer> {
+  int sampleAsInt(Random random);
+
+  @Override
+  default Integer sample(Random random) {
+    return sampleAsInt(random);
+  }
+
+  default void sample(Random random, int[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = sampleAsInt(random);
+    }
+  }
+}
@@ -1,58 +1,133 @@
 package thorpe.luke.distribution;
 
+import java.util.Arrays;
 import java.util.Random;
-import java.util.TreeMap;
 
-public class PoissonDistribution implements Distribution<Integer> {
+public class PoissonDistribution implements IntDistribution {
 
   private final double lambda;
-  private final TreeMap<Double, Integer> cdfTable;
+  // Walker's alias method: pick a column uniformly, then either keep it or take its alias. Column i
+  // stands for the value offset + i.
+  private final int offset;
+  private final double[] probabilityTable;
+  private final int[] aliasTable;
 
   public PoissonDistribution(double lambda) {
     this.lambda = lambda;
-    this.cdfTable = new TreeMap<>();
-    for (CdfTableBuilder cdfTableBuilder = new CdfTableBuilder(lambda);
-        !cdfTableBuilder.isDone();
-        cdfTableBuilder.next()) {
-      cdfTable.put(cdfTableBuilder.getPercentile(), cdfTableBuilder.getX());
+    int mode = (int) Math.floor(lambda);
+    double[] lowerProbabilities = probabilityMassFunctionBelow(mode, lambda);
+    double[] upperProbabilities = probabilityMassFunctionFrom(mode, lambda);
+    int n = lowerProbabilities.length + upperProbabilities.length;
+    double[] probabilities = new double[n];
+    double total = 0.0;
+    for (int i = 0; i < lowerProbabilities.length; i++) {
+      probabilities[i] = lowerProbabilities[lowerProbabilities.length - 1 - i];
+      total += probabilities[i];
     }
+    for (int i = 0; i < upperProbabilities.length; i++) {
+      probabilities[lowerProbabilities.length + i] = upperProbabilities[i];
+      total += upperProbabilities[i];
+    }
+    for (int i = 0; i < n; i++) {
+      probabilities[i] /= total;
+    }
+    this.offset = mode - lowerProbabilities.length;
+    this.probabilityTable = new double[n];
+    this.aliasTable = new int[n];
+    buildAliasTable(probabilities);
   }
 
-  private static class CdfTableBuilder {
-    private final double lambda;
-    private double term;
-    private double percentile;
-    private int x;
-
-    private CdfTableBuilder(double lambda) {
-      this.lambda = lambda;
-      this.term = Math.exp(-lambda);
-      this.percentile = 0.0;
-      this.x = 0;
+  // The mass function is built outwards from the mode, relative to its value there, since starting
+  // from exp(-lambda) at zero underflows once lambda is in the hundreds. Each side stops once its
+  // terms can no longer be told apart from zero next to the mode.
+  private static double[] probabilityMassFunctionFrom(int mode, double lambda) {
+    double[] probabilities = new double[16];
+    double term = 1.0;
+    int count = 0;
+    while (1.0 + term > 1.0) {
+      if (count == probabilities.length) {
+        probabilities = Arrays.copyOf(probabilities, 2 * count);
+      }
+      probabilities[count] = term;
+      term *= lambda / (double) (mode + count + 1);
+      count++;
     }
+    return Arrays.copyOf(probabilities, count);
+  }
 
-    public boolean isDone() {
-      return percentile >= 1.0;
+  private static double[] probabilityMassFunctionBelow(int mode, double lambda) {
+    double[] probabilities = new double[16];
+    double term = 1.0;
+    int count = 0;
+    for (int x = mode; x > 0; x--) {
+      term *= x / lambda;
+      if (1.0 + term == 1.0) {
+        break;
+      }
+      if (count == probabilities.length) {
+        probabilities = Arrays.copyOf(probabilities, 2 * count);
+      }
+      probabilities[count++] = term;
     }
+    return Arrays.copyOf(probabilities, count);
+  }
 
-    public void next() {
-      x++;
-      percentile = percentile + term > percentile ? percentile + term : 1.0;
-      term *= lambda / (double) x;
+  private void buildAliasTable(double[] probabilities) {
+    int n = probabilities.length;
+    double[] scaledProbabilities = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaledProbabilities[i] = probabilities[i] * n;
+      if (scaledProbabilities[i] < 1.0) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
     }
-
-    public double getPercentile() {
-      return percentile;
+    while (smallCount > 0 && largeCount > 0) {
+      int lessLikely = small[--smallCount];
+      int moreLikely = large[--largeCount];
+      probabilityTable[lessLikely] = scaledProbabilities[lessLikely];
+      aliasTable[lessLikely] = moreLikely;
+      scaledProbabilities[moreLikely] += scaledProbabilities[lessLikely] - 1.0;
+      if (scaledProbabilities[moreLikely] < 1.0) {
+        small[smallCount++] = moreLikely;
+      } else {
+        large[largeCount++] = moreLikely;
+      }
     }
-
-    public int getX() {
-      return x;
+    // Whatever is left over is only short of 1 because of rounding errors.
+    while (largeCount > 0) {
+      int i = large[--largeCount];
+      probabilityTable[i] = 1.0;
+      aliasTable[i] = i;
+    }
+    while (smallCount > 0) {
+      int i = small[--smallCount];
+      probabilityTable[i] = 1.0;
+      aliasTable[i] = i;
     }
   }
 
   @Override
-  public Integer sample(Random random) {
-    return cdfTable.floorEntry(random.nextDouble()).getValue();
+  public int sampleAsInt(Random random) {
+    int column = random.nextInt(probabilityTable.length);
+    return offset + (random.nextDouble() < probabilityTable[column] ? column : aliasTable[column]);
+  }
+
+  @Override
+  public void sample(Random random, int[] out, int n) {
+    int offset = this.offset;
+    double[] probabilityTable = this.probabilityTable;
+    int[] aliasTable = this.aliasTable;
+    for (int i = 0; i < n; i++) {
+      int column = random.nextInt(probabilityTable.length);
+      out[i] =
+          offset + (random.nextDouble() < probabilityTable[column] ? column : aliasTable[column]);
+    }
   }
 
   @Override
@@ -0,0 +1,24 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public class PrefetchingBooleanSampler extends PrefetchingSampler {
+
+  private final BooleanDistribution distribution;
+  private final Random random;
+  private final boolean[] samples = new boolean[BATCH_SIZE];
+
+  public PrefetchingBooleanSampler(BooleanDistribution distribution, Random random) {
+    this.distribution = distribution;
+    this.random = random;
+  }
+
+  public boolean nextBoolean() {
+    return samples[nextIndex()];
+  }
+
+  @Override
+  void refill() {
+    distribution.sample(random, samples, BATCH_SIZE);
+  }
+}
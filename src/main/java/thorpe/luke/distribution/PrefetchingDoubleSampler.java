@@ -0,0 +1,24 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public class PrefetchingDoubleSampler extends PrefetchingSampler {
+
+  private final DoubleDistribution distribution;
+  private final Random random;
+  private final double[] samples = new double[BATCH_SIZE];
+
+  public PrefetchingDoubleSampler(DoubleDistribution distribution, Random random) {
+    this.distribution = distribution;
+    this.random = random;
+  }
+
+  public double nextDouble() {
+    return samples[nextIndex()];
+  }
+
+  @Override
+  void refill() {
+    distribution.sample(random, samples, BATCH_SIZE);
+  }
+}
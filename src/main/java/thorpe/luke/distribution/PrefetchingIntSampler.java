@@ -0,0 +1,24 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+public class PrefetchingIntSampler extends PrefetchingSampler {
+
+  private final IntDistribution distribution;
+  private final Random random;
+  private final int[] samples = new int[BATCH_SIZE];
+
+  public PrefetchingIntSampler(IntDistribution distribution, Random random) {
+    this.distribution = distribution;
+    this.random = random;
+  }
+
+  public int nextInt() {
+    return samples[nextIndex()];
+  }
+
+  @Override
+  void refill() {
+    distribution.sample(random, samples, BATCH_SIZE);
+  }
+}
@@ -0,0 +1,20 @@
+package thorpe.luke.distribution;
+
+// Samples are drawn in bulk, rather than once for every call, so that distributions with a fast
+// bulk sampler only pay for their setup once per batch.
+abstract class PrefetchingSampler {
+
+  static final int BATCH_SIZE = 64;
+
+  private int nextIndex = BATCH_SIZE;
+
+  final int nextIndex() {
+    if (nextIndex == BATCH_SIZE) {
+      refill();
+      nextIndex = 0;
+    }
+    return nextIndex++;
+  }
+
+  abstract void refill();
+}
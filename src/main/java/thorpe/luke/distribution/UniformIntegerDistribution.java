@@ -2,7 +2,7 @@ package thorpe.luke.distribution;
 
 import java.util.Random;
 
-public class UniformIntegerDistribution implements Distribution<Integer> {
+public class UniformIntegerDistribution implements IntDistribution {
 
   private final int min;
   private final int max;
@@ -14,10 +14,19 @@ public class UniformIntegerDistribution implements Distribution<Integer> {
   }
 
   @Override
-  public Integer sample(Random random) {
+  public int sampleAsInt(Random random) {
     return random.nextInt(max - min) + min;
   }
 
+  @Override
+  public void sample(Random random, int[] out, int n) {
+    int min = this.min;
+    int range = max - min;
+    for (int i = 0; i < n; i++) {
+      out[i] = random.nextInt(range) + min;
+    }
+  }
+
   @Override
   public Double mean() {
     // Double is used to prevent integer overflow.
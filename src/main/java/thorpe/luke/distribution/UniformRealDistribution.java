@@ -2,7 +2,7 @@ package thorpe.luke.distribution;
 
 import java.util.Random;
 
-public class UniformRealDistribution implements Distribution<Double> {
+public class UniformRealDistribution implements DoubleDistribution {
 
   private final double min;
   private final double max;
@@ -14,10 +14,19 @@ public class UniformRealDistribution implements Distribution<Double> {
   }
 
   @Override
-  public Double sample(Random random) {
+  public double sampleAsDouble(Random random) {
     return (max - min) * random.nextDouble() + min;
   }
 
+  @Override
+  public void sample(Random random, double[] out, int n) {
+    double min = this.min;
+    double range = max - min;
+    for (int i = 0; i < n; i++) {
+      out[i] = range * random.nextDouble() + min;
+    }
+  }
+
   @Override
   public Double mean() {
     return (min + max) / 2;
@@ -0,0 +1,111 @@
+package thorpe.luke.distribution;
+
+import java.util.Random;
+
+// Marsaglia and Tsang's ziggurat method, which turns almost every sample into a table lookup and a
+// multiplication. The layer index and the sample itself come from disjoint halves of one random
+// long, since reusing the same bits for both skews the tails.
+final class Ziggurat {
+
+  private static final int NORMAL_LAYERS = 128;
+  private static final double NORMAL_TAIL_START = 3.442619855899;
+  private static final double NORMAL_LAYER_AREA = 9.91256303526217e-3;
+  private static final long[] NORMAL_K = new long[NORMAL_LAYERS];
+  private static final double[] NORMAL_W = new double[NORMAL_LAYERS];
+  private static final double[] NORMAL_F = new double[NORMAL_LAYERS];
+
+  private static final int EXPONENTIAL_LAYERS = 256;
+  private static final double EXPONENTIAL_TAIL_START = 7.697117470131487;
+  private static final double EXPONENTIAL_LAYER_AREA = 3.949659822581572e-3;
+  private static final long[] EXPONENTIAL_K = new long[EXPONENTIAL_LAYERS];
+  private static final double[] EXPONENTIAL_W = new double[EXPONENTIAL_LAYERS];
+  private static final double[] EXPONENTIAL_F = new double[EXPONENTIAL_LAYERS];
+
+  static {
+    double m1 = 2147483648.0;
+    double dn = NORMAL_TAIL_START;
+    double tn = dn;
+    double q = NORMAL_LAYER_AREA / Math.exp(-0.5 * dn * dn);
+    NORMAL_K[0] = (long) ((dn / q) * m1);
+    NORMAL_K[1] = 0;
+    NORMAL_W[0] = q / m1;
+    NORMAL_W[NORMAL_LAYERS - 1] = dn / m1;
+    NORMAL_F[0] = 1.0;
+    NORMAL_F[NORMAL_LAYERS - 1] = Math.exp(-0.5 * dn * dn);
+    for (int i = NORMAL_LAYERS - 2; i >= 1; i--) {
+      dn = Math.sqrt(-2.0 * Math.log(NORMAL_LAYER_AREA / dn + Math.exp(-0.5 * dn * dn)));
+      NORMAL_K[i + 1] = (long) ((dn / tn) * m1);
+      tn = dn;
+      NORMAL_F[i] = Math.exp(-0.5 * dn * dn);
+      NORMAL_W[i] = dn / m1;
+    }
+
+    double m2 = 4294967296.0;
+    double de = EXPONENTIAL_TAIL_START;
+    double te = de;
+    q = EXPONENTIAL_LAYER_AREA / Math.exp(-de);
+    EXPONENTIAL_K[0] = (long) ((de / q) * m2);
+    EXPONENTIAL_K[1] = 0;
+    EXPONENTIAL_W[0] = q / m2;
+    EXPONENTIAL_W[EXPONENTIAL_LAYERS - 1] = de / m2;
+    EXPONENTIAL_F[0] = 1.0;
+    EXPONENTIAL_F[EXPONENTIAL_LAYERS - 1] = Math.exp(-de);
+    for (int i = EXPONENTIAL_LAYERS - 2; i >= 1; i--) {
+      de = -Math.log(EXPONENTIAL_LAYER_AREA / de + Math.exp(-de));
+      EXPONENTIAL_K[i + 1] = (long) ((de / te) * m2);
+      te = de;
+      EXPONENTIAL_F[i] = Math.exp(-de);
+      EXPONENTIAL_W[i] = de / m2;
+    }
+  }
+
+  private Ziggurat() {}
+
+  // Uniform on (0, 1], so that it is always safe to take its logarithm.
+  private static double positiveUniform(Random random) {
+    return 1.0 - random.nextDouble();
+  }
+
+  static double sampleStandardNormal(Random random) {
+    do {
+      long bits = random.nextLong();
+      int layer = (int) bits & (NORMAL_LAYERS - 1);
+      int hz = (int) (bits >>> Integer.SIZE);
+      double x = hz * NORMAL_W[layer];
+      if (Math.abs((long) hz) < NORMAL_K[layer]) {
+        return x;
+      } else if (layer == 0) {
+        // The base layer's tail is sampled with Marsaglia's method.
+        double tailX;
+        double tailY;
+        do {
+          tailX = -Math.log(positiveUniform(random)) / NORMAL_TAIL_START;
+          tailY = -Math.log(positiveUniform(random));
+        } while (tailY + tailY < tailX * tailX);
+        return hz > 0 ? NORMAL_TAIL_START + tailX : -NORMAL_TAIL_START - tailX;
+      } else if (NORMAL_F[layer] + random.nextDouble() * (NORMAL_F[layer - 1] - NORMAL_F[layer])
+          < Math.exp(-0.5 * x * x)) {
+        return x;
+      }
+    } while (true);
+  }
+
+  static double sampleStandardExponential(Random random) {
+    do {
+      long bits = random.nextLong();
+      int layer = (int) bits & (EXPONENTIAL_LAYERS - 1);
+      long jz = bits >>> Integer.SIZE;
+      double x = jz * EXPONENTIAL_W[layer];
+      if (jz < EXPONENTIAL_K[layer]) {
+        return x;
+      } else if (layer == 0) {
+        // The exponential distribution is memoryless, so its tail is just a shifted copy of itself.
+        return EXPONENTIAL_TAIL_START - Math.log(positiveUniform(random));
+      } else if (EXPONENTIAL_F[layer]
+              + random.nextDouble() * (EXPONENTIAL_F[layer - 1] - EXPONENTIAL_F[layer])
+          < Math.exp(-x)) {
+        return x;
+      }
+    } while (true);
+  }
+}
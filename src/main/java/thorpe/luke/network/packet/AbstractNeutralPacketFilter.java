@@ -1,8 +1,8 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Queue;
+import thorpe.luke.time.EpochNanos;
 
 abstract class AbstractNeutralPacketFilter<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<Wrapper> {
@@ -14,17 +14,27 @@ abstract class AbstractNeutralPacketFilter<Wrapper extends PacketWrapper<Wrapper
   }
 
   @Override
-  public void tick(LocalDateTime now) {
+  public void tick(long nowNanos) {
     // Do nothing.
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    packetWrapperQueue.offer(packetWrapper);
+    offer(packetWrapper);
+  }
+
+  protected boolean offer(Wrapper packetWrapper) {
+    return packetWrapperQueue.offer(packetWrapper);
   }
 
   @Override
   public Optional<Wrapper> tryDequeue() {
     return Optional.ofNullable(packetWrapperQueue.poll());
   }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    // Buffered packets are always ready to be dequeued.
+    return packetWrapperQueue.isEmpty() ? EpochNanos.NEVER : EpochNanos.IMMEDIATELY;
+  }
 }
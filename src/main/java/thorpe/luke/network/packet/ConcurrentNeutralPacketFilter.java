@@ -1,11 +1,61 @@
 package thorpe.luke.network.packet;
 
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import thorpe.luke.util.MpscRingBuffer;
 
 public class ConcurrentNeutralPacketFilter<Wrapper extends PacketWrapper<Wrapper>>
     extends AbstractNeutralPacketFilter<Wrapper> {
 
+  private static final long BLOCKING_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final IngressOverflowPolicy overflowPolicy;
+  private final LongAdder droppedPacketCount = new LongAdder();
+
   protected ConcurrentNeutralPacketFilter() {
-    super(new ConcurrentLinkedQueue<>());
+    this(new ConcurrentLinkedQueue<>(), IngressOverflowPolicy.DROP_TAIL);
+  }
+
+  // Only safe when there is a single consumer, as is the case for the ingress of a pipeline.
+  protected ConcurrentNeutralPacketFilter(int capacity, IngressOverflowPolicy overflowPolicy) {
+    this(new MpscRingBuffer<>(capacity), overflowPolicy);
+  }
+
+  private ConcurrentNeutralPacketFilter(
+      Queue<Wrapper> packetWrapperQueue, IngressOverflowPolicy overflowPolicy) {
+    super(packetWrapperQueue);
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  @Override
+  public void enqueue(Wrapper packetWrapper) {
+    if (offer(packetWrapper)) {
+      return;
+    }
+    switch (overflowPolicy) {
+      case DROP_TAIL:
+        droppedPacketCount.increment();
+        break;
+      case BLOCK:
+        do {
+          LockSupport.parkNanos(this, BLOCKING_BACKOFF_NANOS);
+        } while (!offer(packetWrapper));
+        break;
+    }
+  }
+
+  // Drops the packet if there is no room for it, whatever the overflow policy, for callers that
+  // cannot afford to wait on any one pipeline.
+  public void enqueueWithoutBlocking(Wrapper packetWrapper) {
+    if (!offer(packetWrapper)) {
+      droppedPacketCount.increment();
+    }
+  }
+
+  public long getDroppedPacketCount() {
+    return droppedPacketCount.sum();
   }
 }
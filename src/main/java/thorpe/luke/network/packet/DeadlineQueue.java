@@ -0,0 +1,61 @@
+package thorpe.luke.network.packet;
+
+import thorpe.luke.time.EpochNanos;
+
+// A FIFO of packets whose deadlines never decrease, which makes every operation O(1) without the
+// need for a priority queue. Deadlines live in a primitive ring buffer alongside their packets.
+final class DeadlineQueue<Wrapper extends PacketWrapper<Wrapper>> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] deadlinesNanos;
+  private Object[] packetWrappers;
+  private int head;
+  private int size;
+
+  DeadlineQueue() {
+    this.deadlinesNanos = new long[INITIAL_CAPACITY];
+    this.packetWrappers = new Object[INITIAL_CAPACITY];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  void offer(long deadlineNanos, Wrapper packetWrapper) {
+    if (size == deadlinesNanos.length) {
+      grow();
+    }
+    int tail = (head + size) & (deadlinesNanos.length - 1);
+    deadlinesNanos[tail] = deadlineNanos;
+    packetWrappers[tail] = packetWrapper;
+    size++;
+  }
+
+  private void grow() {
+    long[] oldDeadlinesNanos = deadlinesNanos;
+    Object[] oldPacketWrappers = packetWrappers;
+    deadlinesNanos = new long[oldDeadlinesNanos.length * 2];
+    packetWrappers = new Object[oldPacketWrappers.length * 2];
+    int firstPartLength = oldDeadlinesNanos.length - head;
+    System.arraycopy(oldDeadlinesNanos, head, deadlinesNanos, 0, firstPartLength);
+    System.arraycopy(oldDeadlinesNanos, 0, deadlinesNanos, firstPartLength, head);
+    System.arraycopy(oldPacketWrappers, head, packetWrappers, 0, firstPartLength);
+    System.arraycopy(oldPacketWrappers, 0, packetWrappers, firstPartLength, head);
+    head = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  Wrapper poll(long nowNanos) {
+    if (size == 0 || deadlinesNanos[head] > nowNanos) {
+      return null;
+    }
+    Wrapper packetWrapper = (Wrapper) packetWrappers[head];
+    packetWrappers[head] = null;
+    head = (head + 1) & (deadlinesNanos.length - 1);
+    size--;
+    return packetWrapper;
+  }
+
+  long peekDeadlineNanos() {
+    return size == 0 ? EpochNanos.NEVER : deadlinesNanos[head];
+  }
+}
@@ -0,0 +1,51 @@
+package thorpe.luke.network.packet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+class FusedPacketFilter<Wrapper extends PacketWrapper<Wrapper>> implements PacketFilter<Wrapper> {
+
+  private final Consumer<Wrapper> fusedTransform;
+  private final PacketFilter<Wrapper> downstreamFilter;
+
+  // Packets are run through every stateless filter as they are enqueued, and land straight in the
+  // downstream filter, rather than being buffered between stages.
+  FusedPacketFilter(
+      List<StatelessPacketFilter<Wrapper>> statelessFilters,
+      PacketFilter<Wrapper> downstreamFilter) {
+    Consumer<Wrapper> fusedTransform = downstreamFilter::enqueue;
+    for (int i = statelessFilters.size() - 1; i >= 0; i--) {
+      StatelessPacketFilter<Wrapper> statelessFilter = statelessFilters.get(i);
+      Consumer<Wrapper> downstream = fusedTransform;
+      fusedTransform = packetWrapper -> statelessFilter.transform(packetWrapper, downstream);
+    }
+    this.fusedTransform = fusedTransform;
+    this.downstreamFilter = downstreamFilter;
+  }
+
+  @Override
+  public void tick(long nowNanos) {
+    downstreamFilter.tick(nowNanos);
+  }
+
+  @Override
+  public void tick(long nowNanos, int maxPacketsPerStage) {
+    downstreamFilter.tick(nowNanos, maxPacketsPerStage);
+  }
+
+  @Override
+  public void enqueue(Wrapper packetWrapper) {
+    fusedTransform.accept(packetWrapper);
+  }
+
+  @Override
+  public Optional<Wrapper> tryDequeue() {
+    return downstreamFilter.tryDequeue();
+  }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return downstreamFilter.peekNextDequeueTimeNanos();
+  }
+}
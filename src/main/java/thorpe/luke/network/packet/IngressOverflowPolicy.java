@@ -0,0 +1,6 @@
+package thorpe.luke.network.packet;
+
+public enum IngressOverflowPolicy {
+  DROP_TAIL,
+  BLOCK
+}
@@ -6,18 +6,29 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import thorpe.luke.distribution.*;
+import thorpe.luke.time.EpochNanos;
+import thorpe.luke.util.SplittableRandomAdaptor;
 
 public interface NetworkCondition {
   static NetworkCondition packetLimit(int packetLimitRate, ChronoUnit timeUnit) {
+    return packetLimit(packetLimitRate, packetLimitRate, timeUnit);
+  }
+
+  static NetworkCondition packetLimit(
+      int packetLimitRate, int packetBurstSize, ChronoUnit timeUnit) {
     if (packetLimitRate < 0) {
       throw new InvalidNetworkConditionException(
           "Packet limit rate should be greater than or equal to 0.");
+    } else if (packetBurstSize < 0) {
+      throw new InvalidNetworkConditionException(
+          "Packet burst size should be greater than or equal to 0.");
     }
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
-        return new PacketLimitingFilter<>(packetLimitRate, timeUnit, startTime);
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
+        return new PacketLimitingFilter<>(
+            packetLimitRate, packetBurstSize, timeUnit, startTimeNanos);
       }
     };
   }
@@ -31,9 +42,9 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         return new PacketThrottlingFilter<>(
-            byteThrottleRate, byteDropThreshold, timeUnit, startTime);
+            byteThrottleRate, byteDropThreshold, timeUnit, startTimeNanos);
       }
     };
   }
@@ -55,11 +66,15 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         PacketPipeline<Wrapper> defaultPacketPipeline =
-            new PacketPipeline<>(defaultPacketPipelineParameters, startTime);
+            new PacketPipeline<>(defaultPacketPipelineParameters, startTimeNanos);
         return new SimulatedEventPipeline<>(
-            defaultPacketPipeline, networkEvents, timeUnit, startTime, random);
+            defaultPacketPipeline,
+            networkEvents,
+            timeUnit,
+            startTimeNanos,
+            SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -72,12 +87,12 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         return new SimulatedPacketCorruptionFilter<>(
             new BernoulliDistribution(corruptionProbability),
             new UniformIntegerDistribution(0, Integer.MAX_VALUE),
             new UniformIntegerDistribution(0, Integer.MAX_VALUE),
-            random);
+            SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -90,8 +105,9 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
-        return new SimulatedPacketDropFilter<>(new BernoulliDistribution(dropProbability), random);
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
+        return new SimulatedPacketDropFilter<>(
+            new BernoulliDistribution(dropProbability), SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -104,9 +120,9 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         return new SimulatedPacketDuplicationFilter<>(
-            new PoissonDistribution(meanDuplications), random);
+            new PoissonDistribution(meanDuplications), SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -123,9 +139,12 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         return new SimulatedPacketLatencyFilter<>(
-            new NormalDistribution(meanLatency, standardDeviation), timeUnit, startTime, random);
+            new NormalDistribution(meanLatency, standardDeviation),
+            timeUnit,
+            startTimeNanos,
+            SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -138,9 +157,12 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
         return new SimulatedPacketLatencyFilter<>(
-            new ExponentialDistribution(meanLatency), timeUnit, startTime, random);
+            new ExponentialDistribution(meanLatency),
+            timeUnit,
+            startTimeNanos,
+            SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
@@ -157,13 +179,40 @@ public interface NetworkCondition {
     return new NetworkCondition() {
       @Override
       public <Wrapper extends PacketWrapper<Wrapper>>
-          PacketFilter<Wrapper> asPacketFilterStartingAt(LocalDateTime startTime) {
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
+        return new SimulatedPacketLatencyFilter<>(
+            new UniformRealDistribution(minLatency, maxLatency),
+            timeUnit,
+            startTimeNanos,
+            SplittableRandomAdaptor.splitFrom(random));
+      }
+    };
+  }
+
+  static NetworkCondition empiricalPacketLatency(
+      EmpiricalDistribution latencyDistribution, ChronoUnit timeUnit, Random random) {
+    if (latencyDistribution == null) {
+      throw new InvalidNetworkConditionException("Latency distribution cannot be null.");
+    }
+    return new NetworkCondition() {
+      @Override
+      public <Wrapper extends PacketWrapper<Wrapper>>
+          PacketFilter<Wrapper> asPacketFilterStartingAt(long startTimeNanos) {
+        // Every filter shares the same distribution, and hence the same quantile table.
         return new SimulatedPacketLatencyFilter<>(
-            new UniformRealDistribution(minLatency, maxLatency), timeUnit, startTime, random);
+            latencyDistribution,
+            timeUnit,
+            startTimeNanos,
+            SplittableRandomAdaptor.splitFrom(random));
       }
     };
   }
 
   <Wrapper extends PacketWrapper<Wrapper>> PacketFilter<Wrapper> asPacketFilterStartingAt(
-      LocalDateTime startTime);
+      long startTimeNanos);
+
+  default <Wrapper extends PacketWrapper<Wrapper>> PacketFilter<Wrapper> asPacketFilterStartingAt(
+      LocalDateTime startTime) {
+    return asPacketFilterStartingAt(EpochNanos.of(startTime));
+  }
 }
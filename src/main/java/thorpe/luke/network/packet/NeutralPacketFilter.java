@@ -1,11 +1,11 @@
 package thorpe.luke.network.packet;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 
 public class NeutralPacketFilter<Wrapper extends PacketWrapper<Wrapper>>
     extends AbstractNeutralPacketFilter<Wrapper> {
 
   protected NeutralPacketFilter() {
-    super(new LinkedList<>());
+    super(new ArrayDeque<>());
   }
 }
@@ -4,25 +4,60 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import thorpe.luke.util.ByteUtils;
 
 public class Packet implements PacketWrapper<Packet> {
-  private final List<Byte> data;
+  // The unspecified address, 0.0.0.0, stands for a packet that did not arrive as a datagram.
+  public static final int NO_SOURCE_IPV4_ADDRESS = 0;
+
+  private static final long[] NO_BIT_FLIPS = new long[0];
+
+  private final byte[] data;
+  private final int sourceIpv4Address;
+  // Corruption is recorded as (byte index, bit mask) pairs over the shared data, which are only
+  // applied to a copy of it once the bytes are read in bulk.
+  private final long[] bitFlips;
+  private volatile byte[] materializedData;
 
   public Packet(List<Byte> data) {
-    this.data = Collections.unmodifiableList(data);
+    this(ByteUtils.toArray(data));
+  }
+
+  private Packet(byte[] data) {
+    this(data, NO_SOURCE_IPV4_ADDRESS);
+  }
+
+  private Packet(byte[] data, int sourceIpv4Address) {
+    this(data, sourceIpv4Address, NO_BIT_FLIPS);
+  }
+
+  private Packet(byte[] data, int sourceIpv4Address, long[] bitFlips) {
+    this.data = data;
+    this.sourceIpv4Address = sourceIpv4Address;
+    this.bitFlips = bitFlips;
+    this.materializedData = bitFlips.length == 0 ? data : null;
   }
 
   public static Packet fromBytes(byte... bytes) {
-    return new Packet(ByteUtils.toList(bytes));
+    return new Packet(bytes.clone());
+  }
+
+  public static Packet fromBuffer(ByteBuffer buffer) {
+    return fromBuffer(buffer, NO_SOURCE_IPV4_ADDRESS);
+  }
+
+  public static Packet fromBuffer(ByteBuffer buffer, int sourceIpv4Address) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new Packet(bytes, sourceIpv4Address);
   }
 
   public static Packet of(Serializable serializable) {
     try {
-      return new Packet(ByteUtils.toList(ByteUtils.serialize(serializable)));
+      return new Packet(ByteUtils.serialize(serializable));
     } catch (IOException e) {
       throw new PacketException(e);
     }
@@ -30,7 +65,7 @@ public class Packet implements PacketWrapper<Packet> {
 
   public <T> Optional<T> tryParse() {
     try {
-      return Optional.ofNullable((T) ByteUtils.deserialize(ByteUtils.toArray(getData())));
+      return Optional.ofNullable((T) ByteUtils.deserialize(bytes()));
     } catch (ClassCastException
         | ClassNotFoundException
         | StreamCorruptedException
@@ -45,21 +80,74 @@ public class Packet implements PacketWrapper<Packet> {
     return tryParse();
   }
 
+  private byte[] bytes() {
+    byte[] materializedData = this.materializedData;
+    if (materializedData == null) {
+      materializedData = data.clone();
+      for (long bitFlip : bitFlips) {
+        materializedData[(int) (bitFlip >>> Byte.SIZE)] ^= (byte) bitFlip;
+      }
+      this.materializedData = materializedData;
+    }
+    return materializedData;
+  }
+
+  public Packet flipBits(int byteIndex, byte mask) {
+    if (byteIndex < 0 || byteIndex >= data.length) {
+      throw new IndexOutOfBoundsException(
+          "Byte index " + byteIndex + " is out of bounds for length " + data.length + ".");
+    }
+    long[] flippedBits = Arrays.copyOf(bitFlips, bitFlips.length + 1);
+    flippedBits[bitFlips.length] = (long) byteIndex << Byte.SIZE | (mask & 0xFF);
+    return new Packet(data, sourceIpv4Address, flippedBits);
+  }
+
+  public ByteBuffer asReadOnlyBuffer() {
+    return ByteBuffer.wrap(bytes()).asReadOnlyBuffer();
+  }
+
+  public int length() {
+    return data.length;
+  }
+
+  public byte byteAt(int index) {
+    byte b = data[index];
+    for (long bitFlip : bitFlips) {
+      if ((int) (bitFlip >>> Byte.SIZE) == index) {
+        b ^= (byte) bitFlip;
+      }
+    }
+    return b;
+  }
+
+  public int getSourceIpv4Address() {
+    return sourceIpv4Address;
+  }
+
+  public byte[] toByteArray() {
+    return bytes().clone();
+  }
+
   public List<Byte> getData() {
-    return new ArrayList<>(data);
+    return ByteUtils.toList(bytes());
   }
 
   public int countBytes() {
-    return data.size();
+    return data.length;
   }
 
   @Override
   public int hashCode() {
-    return data.hashCode();
+    return 31 * Arrays.hashCode(bytes()) + sourceIpv4Address;
   }
 
   public Packet bytewiseMap(Function<Byte, Byte> function) {
-    return new Packet(this.getData().stream().map(function).collect(Collectors.toList()));
+    byte[] bytes = bytes();
+    byte[] mappedData = new byte[bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      mappedData[i] = function.apply(bytes[i]);
+    }
+    return new Packet(mappedData, sourceIpv4Address);
   }
 
   @Override
@@ -69,7 +157,8 @@ public class Packet implements PacketWrapper<Packet> {
 
   @Override
   public Packet copy() {
-    return new Packet(new ArrayList<>(data));
+    // Packets are immutable, so copies can share the same payload.
+    return this;
   }
 
   @Override
@@ -83,17 +172,22 @@ public class Packet implements PacketWrapper<Packet> {
       return true;
     } else if (obj instanceof Packet) {
       Packet that = (Packet) obj;
-      return this.data.equals(that.data);
+      return this.sourceIpv4Address == that.sourceIpv4Address
+          && Arrays.equals(this.bytes(), that.bytes());
     }
     return false;
   }
 
   @Override
   public String toString() {
-    return "Packet(length="
-        + data.size()
-        + ",contents=["
-        + data.stream().map(Object::toString).collect(Collectors.joining(","))
-        + "])";
+    byte[] bytes = bytes();
+    StringBuilder contents = new StringBuilder();
+    for (int i = 0; i < bytes.length; i++) {
+      if (i > 0) {
+        contents.append(',');
+      }
+      contents.append(bytes[i]);
+    }
+    return "Packet(length=" + data.length + ",contents=[" + contents + "])";
   }
 }
@@ -2,11 +2,29 @@ package thorpe.luke.network.packet;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import thorpe.luke.time.EpochNanos;
 
 public interface PacketFilter<Wrapper extends PacketWrapper<Wrapper>> {
-  void tick(LocalDateTime now);
+  void tick(long nowNanos);
+
+  default void tick(long nowNanos, int maxPacketsPerStage) {
+    tick(nowNanos);
+  }
+
+  default void tick(LocalDateTime now) {
+    tick(EpochNanos.of(now));
+  }
 
   void enqueue(Wrapper packetWrapper);
 
   Optional<Wrapper> tryDequeue();
+
+  long peekNextDequeueTimeNanos();
+
+  default Optional<LocalDateTime> peekNextDequeueTime() {
+    long nextDequeueTimeNanos = peekNextDequeueTimeNanos();
+    return nextDequeueTimeNanos == EpochNanos.NEVER
+        ? Optional.empty()
+        : Optional.of(EpochNanos.toLocalDateTime(nextDequeueTimeNanos));
+  }
 }
@@ -1,37 +1,37 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.PriorityQueue;
+import thorpe.luke.time.TickableClock;
+import thorpe.luke.time.TimingWheel;
 
 public class PacketLatencyFilter<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<ScheduledPacket<Wrapper>> {
 
-  private final PriorityQueue<ScheduledPacket<Wrapper>> scheduledPacketQueue =
-      new PriorityQueue<>();
-  private LocalDateTime now;
+  private final TimingWheel<ScheduledPacket<Wrapper>> scheduledPacketWheel;
+  private long nowNanos;
 
-  public PacketLatencyFilter(LocalDateTime startTime) {
-    this.now = startTime;
+  public PacketLatencyFilter(long startTimeNanos) {
+    this.scheduledPacketWheel = new TimingWheel<>(TickableClock.TICK_NANOS, startTimeNanos);
+    this.nowNanos = startTimeNanos;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    this.now = now;
+  public void tick(long nowNanos) {
+    this.nowNanos = nowNanos;
   }
 
   @Override
   public void enqueue(ScheduledPacket<Wrapper> scheduledPacket) {
-    scheduledPacketQueue.offer(scheduledPacket);
+    scheduledPacketWheel.schedule(scheduledPacket.getScheduledDequeueTimeNanos(), scheduledPacket);
   }
 
   @Override
   public Optional<ScheduledPacket<Wrapper>> tryDequeue() {
-    ScheduledPacket<Wrapper> scheduledPacket = scheduledPacketQueue.peek();
-    if (scheduledPacket == null || scheduledPacket.getScheduledDequeueTime().isAfter(now)) {
-      return Optional.empty();
-    }
-    scheduledPacketQueue.poll();
-    return Optional.of(scheduledPacket);
+    return Optional.ofNullable(scheduledPacketWheel.poll(nowNanos));
+  }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return scheduledPacketWheel.peekNextDeadlineNanos();
   }
 }
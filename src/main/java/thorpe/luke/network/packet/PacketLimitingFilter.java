@@ -1,46 +1,55 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.LinkedList;
 import java.util.Optional;
-import java.util.Queue;
+import thorpe.luke.time.EpochNanos;
 
 public class PacketLimitingFilter<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<Wrapper> {
 
-  private final Queue<Wrapper> packetWrapperQueue = new LinkedList<>();
-  private final int packetLimitRate;
-  private final ChronoUnit timeUnit;
-  private long packetBudget;
-  private LocalDateTime now;
-
-  public PacketLimitingFilter(int packetLimitRate, ChronoUnit timeUnit, LocalDateTime startTime) {
-    this.packetLimitRate = packetLimitRate;
-    this.timeUnit = timeUnit;
-    this.packetBudget = 0;
-    this.now = startTime;
+  private final NeutralPacketFilter<Wrapper> neutralPacketFilter = new NeutralPacketFilter<>();
+  // A token bucket that refills continuously, at packetLimitRate tokens per unit of time.
+  private final double tokensPerNano;
+  private final double packetBurstSize;
+  private double tokens;
+  private long nowNanos;
+
+  public PacketLimitingFilter(int packetLimitRate, ChronoUnit timeUnit, long startTimeNanos) {
+    this(packetLimitRate, packetLimitRate, timeUnit, startTimeNanos);
+  }
+
+  public PacketLimitingFilter(
+      int packetLimitRate, int packetBurstSize, ChronoUnit timeUnit, long startTimeNanos) {
+    this.tokensPerNano = packetLimitRate / (double) EpochNanos.toNanos(timeUnit);
+    this.packetBurstSize = packetBurstSize;
+    this.tokens = packetBurstSize;
+    this.nowNanos = startTimeNanos;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    long timeElapsed = timeUnit.between(this.now, now);
-    if (timeElapsed > 0) {
-      packetBudget = timeElapsed * packetLimitRate;
-      this.now = this.now.plus(timeElapsed, timeUnit);
+  public void tick(long nowNanos) {
+    if (nowNanos > this.nowNanos) {
+      // A filter that has not been ticked for a while is granted no more than a full bucket.
+      tokens = Math.min(packetBurstSize, tokens + (nowNanos - this.nowNanos) * tokensPerNano);
+      this.nowNanos = nowNanos;
     }
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    if (packetBudget > 0) {
-      packetBudget--;
-      packetWrapperQueue.offer(packetWrapper);
+    if (tokens >= 1.0) {
+      tokens -= 1.0;
+      neutralPacketFilter.enqueue(packetWrapper);
     }
   }
 
   @Override
   public Optional<Wrapper> tryDequeue() {
-    return Optional.ofNullable(packetWrapperQueue.poll());
+    return neutralPacketFilter.tryDequeue();
+  }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return neutralPacketFilter.peekNextDequeueTimeNanos();
   }
 }
@@ -3,26 +3,81 @@ package thorpe.luke.network.packet;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import thorpe.luke.time.EpochNanos;
 
 public class PacketPipeline<Wrapper extends PacketWrapper<Wrapper>> {
+  private final ConcurrentNeutralPacketFilter<Wrapper> ingressFilter;
   private final List<PacketFilter<Wrapper>> packetFilters;
 
   public PacketPipeline(Parameters packetPipelineParameters, LocalDateTime startTime) {
+    this(packetPipelineParameters, EpochNanos.of(startTime));
+  }
+
+  public PacketPipeline(Parameters packetPipelineParameters, long startTimeNanos) {
+    this(packetPipelineParameters, startTimeNanos, new ConcurrentNeutralPacketFilter<>());
+  }
+
+  public PacketPipeline(
+      Parameters packetPipelineParameters,
+      long startTimeNanos,
+      int ingressCapacity,
+      IngressOverflowPolicy ingressOverflowPolicy) {
+    this(
+        packetPipelineParameters,
+        startTimeNanos,
+        new ConcurrentNeutralPacketFilter<>(ingressCapacity, ingressOverflowPolicy));
+  }
+
+  private PacketPipeline(
+      Parameters packetPipelineParameters,
+      long startTimeNanos,
+      ConcurrentNeutralPacketFilter<Wrapper> ingressFilter) {
     this(
-        packetPipelineParameters
-            .getNetworkConditions()
-            .stream()
-            .map(
-                networkCondition ->
-                    (PacketFilter<Wrapper>) networkCondition.asPacketFilterStartingAt(startTime))
-            .collect(Collectors.toList()));
+        ingressFilter,
+        fuseStatelessFilters(
+            packetPipelineParameters
+                .getNetworkConditions()
+                .stream()
+                .map(
+                    networkCondition ->
+                        (PacketFilter<Wrapper>)
+                            networkCondition.asPacketFilterStartingAt(startTimeNanos))
+                .collect(Collectors.toList())));
   }
 
-  private PacketPipeline(List<PacketFilter<Wrapper>> packetFilters) {
-    packetFilters.add(0, new ConcurrentNeutralPacketFilter<>());
+  private PacketPipeline(
+      ConcurrentNeutralPacketFilter<Wrapper> ingressFilter,
+      List<PacketFilter<Wrapper>> packetFilters) {
+    packetFilters.add(0, ingressFilter);
+    this.ingressFilter = ingressFilter;
     this.packetFilters = Collections.unmodifiableList(new ArrayList<>(packetFilters));
   }
 
+  // Consecutive stateless filters are fused into the filter that follows them, so that a packet
+  // passes through all of them in one go, no matter how many conditions are stacked up.
+  private static <Wrapper extends PacketWrapper<Wrapper>>
+      List<PacketFilter<Wrapper>> fuseStatelessFilters(List<PacketFilter<Wrapper>> packetFilters) {
+    List<PacketFilter<Wrapper>> fusedPacketFilters = new ArrayList<>();
+    List<StatelessPacketFilter<Wrapper>> statelessFilters = new ArrayList<>();
+    for (PacketFilter<Wrapper> packetFilter : packetFilters) {
+      if (packetFilter instanceof StatelessPacketFilter) {
+        statelessFilters.add((StatelessPacketFilter<Wrapper>) packetFilter);
+      } else if (statelessFilters.isEmpty()) {
+        fusedPacketFilters.add(packetFilter);
+      } else {
+        fusedPacketFilters.add(new FusedPacketFilter<>(statelessFilters, packetFilter));
+        statelessFilters = new ArrayList<>();
+      }
+    }
+    if (statelessFilters.size() == 1) {
+      fusedPacketFilters.add(statelessFilters.get(0));
+    } else if (!statelessFilters.isEmpty()) {
+      fusedPacketFilters.add(
+          new FusedPacketFilter<>(statelessFilters, new NeutralPacketFilter<>()));
+    }
+    return fusedPacketFilters;
+  }
+
   public static Parameters perfectParameters() {
     return parameters();
   }
@@ -39,20 +94,58 @@ public class PacketPipeline<Wrapper extends PacketWrapper<Wrapper>> {
     packetFilters.get(0).enqueue(packetWrapper);
   }
 
+  public void enqueueWithoutBlocking(Wrapper packetWrapper) {
+    ingressFilter.enqueueWithoutBlocking(packetWrapper);
+  }
+
   public void tick(LocalDateTime now) {
+    tick(EpochNanos.of(now));
+  }
+
+  public void tick(long nowNanos) {
+    tick(nowNanos, 1);
+  }
+
+  public void tick(long nowNanos, int maxPacketsPerStage) {
     for (int i = 0; i + 1 < packetFilters.size(); i++) {
       PacketFilter<Wrapper> currentFilter = packetFilters.get(i);
       PacketFilter<Wrapper> nextFilter = packetFilters.get(i + 1);
-      currentFilter.tryDequeue().ifPresent(nextFilter::enqueue);
-      nextFilter.tick(now);
+      for (int j = 0; j < maxPacketsPerStage; j++) {
+        Optional<Wrapper> packetWrapper = currentFilter.tryDequeue();
+        if (!packetWrapper.isPresent()) {
+          break;
+        }
+        nextFilter.enqueue(packetWrapper.get());
+      }
+      nextFilter.tick(nowNanos, maxPacketsPerStage);
     }
   }
 
+  public long countDroppedIngressPackets() {
+    return ingressFilter.getDroppedPacketCount();
+  }
+
   public Optional<Wrapper> tryDequeue() {
     PacketFilter<Wrapper> lastFilter = packetFilters.get(packetFilters.size() - 1);
     return lastFilter.tryDequeue();
   }
 
+  public long peekNextDequeueTimeNanos() {
+    long nextDequeueTimeNanos = EpochNanos.NEVER;
+    for (PacketFilter<Wrapper> packetFilter : packetFilters) {
+      nextDequeueTimeNanos =
+          Math.min(nextDequeueTimeNanos, packetFilter.peekNextDequeueTimeNanos());
+    }
+    return nextDequeueTimeNanos;
+  }
+
+  public Optional<LocalDateTime> peekNextDequeueTime() {
+    long nextDequeueTimeNanos = peekNextDequeueTimeNanos();
+    return nextDequeueTimeNanos == EpochNanos.NEVER
+        ? Optional.empty()
+        : Optional.of(EpochNanos.toLocalDateTime(nextDequeueTimeNanos));
+  }
+
   public static class Parameters {
     private final List<NetworkCondition> networkConditions;
 
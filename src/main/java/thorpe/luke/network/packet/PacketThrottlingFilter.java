@@ -1,64 +1,65 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import thorpe.luke.time.EpochNanos;
 
 public class PacketThrottlingFilter<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<Wrapper> {
 
-  private final PacketLatencyFilter<Wrapper> packetLatencyFilter;
-  private final int byteThrottleRate;
+  // Throttled packets leave in the order they arrive, so their deadlines never decrease.
+  private final DeadlineQueue<Wrapper> deadlineQueue;
+  private final double nanosPerByte;
   private final long timeDropThreshold;
-  private final ChronoUnit timeUnit;
-  private double timeDelta;
-  private LocalDateTime now;
-  private LocalDateTime previousScheduledDequeueTime;
+  private final long timeUnitNanos;
+  private double fractionalNanos;
+  private long nowNanos;
+  private long previousScheduledDequeueTimeNanos;
 
   public PacketThrottlingFilter(
-      int byteThrottleRate, int byteDropThreshold, ChronoUnit timeUnit, LocalDateTime startTime) {
-    this.packetLatencyFilter = new PacketLatencyFilter<>(startTime);
-    this.byteThrottleRate = 2 * byteThrottleRate;
+      int byteThrottleRate, int byteDropThreshold, ChronoUnit timeUnit, long startTimeNanos) {
+    this.deadlineQueue = new DeadlineQueue<>();
+    this.timeUnitNanos = EpochNanos.toNanos(timeUnit);
+    this.nanosPerByte = timeUnitNanos / (2.0 * byteThrottleRate);
     this.timeDropThreshold = 2L * byteDropThreshold / byteThrottleRate;
-    this.timeUnit = timeUnit;
-    this.timeDelta = 0.0;
-    this.now = startTime;
-    this.previousScheduledDequeueTime = startTime;
+    this.fractionalNanos = 0.0;
+    this.nowNanos = startTimeNanos;
+    this.previousScheduledDequeueTimeNanos = startTimeNanos;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    long timeElapsed = timeUnit.between(previousScheduledDequeueTime, now);
+  public void tick(long nowNanos) {
+    long timeElapsed = (nowNanos - previousScheduledDequeueTimeNanos) / timeUnitNanos;
     if (timeElapsed > 0) {
-      previousScheduledDequeueTime = now;
-      timeDelta = 0.0;
+      previousScheduledDequeueTimeNanos = nowNanos;
+      fractionalNanos = 0.0;
     }
-    this.now = now;
-    packetLatencyFilter.tick(now);
+    this.nowNanos = nowNanos;
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    if (timeUnit.between(now, previousScheduledDequeueTime) > timeDropThreshold) {
+    if ((previousScheduledDequeueTimeNanos - nowNanos) / timeUnitNanos > timeDropThreshold) {
       return;
     }
-    int packetSizeInBytes = packetWrapper.getPacket().countBytes();
-    double timeRequiredToProcessPacket = packetSizeInBytes / (double) byteThrottleRate;
-    long processingLatency = (long) timeRequiredToProcessPacket;
-    timeDelta += timeRequiredToProcessPacket - processingLatency;
-    if (timeDelta >= 1.0) {
-      long latencyDelta = (long) timeDelta;
-      processingLatency += latencyDelta;
-      timeDelta -= latencyDelta;
-    }
-    LocalDateTime scheduledDequeueTime =
-        previousScheduledDequeueTime.plus(processingLatency, timeUnit);
-    packetLatencyFilter.enqueue(new ScheduledPacket<>(scheduledDequeueTime, packetWrapper));
-    previousScheduledDequeueTime = scheduledDequeueTime;
+    // Fractions of a nanosecond are carried over, so that small packets still add up.
+    double processingNanos =
+        packetWrapper.getPacket().countBytes() * nanosPerByte + fractionalNanos;
+    long processingLatencyNanos = (long) processingNanos;
+    fractionalNanos = processingNanos - processingLatencyNanos;
+    long scheduledDequeueTimeNanos =
+        EpochNanos.plus(previousScheduledDequeueTimeNanos, processingLatencyNanos);
+    deadlineQueue.offer(scheduledDequeueTimeNanos, packetWrapper);
+    previousScheduledDequeueTimeNanos = scheduledDequeueTimeNanos;
   }
 
   @Override
   public Optional<Wrapper> tryDequeue() {
-    return packetLatencyFilter.tryDequeue().map(ScheduledPacket::getPacketWrapper);
+    return Optional.ofNullable(deadlineQueue.poll(nowNanos));
+  }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return deadlineQueue.peekDeadlineNanos();
   }
 }
@@ -1,21 +1,20 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.util.function.Function;
 
 final class ScheduledPacket<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketWrapper<ScheduledPacket<Wrapper>>, Comparable<ScheduledPacket<Wrapper>> {
 
-  private final LocalDateTime scheduledDequeueTime;
+  private final long scheduledDequeueTimeNanos;
   private final Wrapper packetWrapper;
 
-  public ScheduledPacket(LocalDateTime scheduledDequeueTime, Wrapper packetWrapper) {
-    this.scheduledDequeueTime = scheduledDequeueTime;
+  public ScheduledPacket(long scheduledDequeueTimeNanos, Wrapper packetWrapper) {
+    this.scheduledDequeueTimeNanos = scheduledDequeueTimeNanos;
     this.packetWrapper = packetWrapper;
   }
 
-  public LocalDateTime getScheduledDequeueTime() {
-    return scheduledDequeueTime;
+  public long getScheduledDequeueTimeNanos() {
+    return scheduledDequeueTimeNanos;
   }
 
   public Wrapper getPacketWrapper() {
@@ -24,17 +23,17 @@ final class ScheduledPacket<Wrapper extends PacketWrapper<Wrapper>>
 
   @Override
   public int compareTo(ScheduledPacket that) {
-    return this.scheduledDequeueTime.compareTo(that.scheduledDequeueTime);
+    return Long.compare(this.scheduledDequeueTimeNanos, that.scheduledDequeueTimeNanos);
   }
 
   @Override
   public ScheduledPacket<Wrapper> map(Function<Packet, Packet> function) {
-    return new ScheduledPacket<>(scheduledDequeueTime, packetWrapper.map(function));
+    return new ScheduledPacket<>(scheduledDequeueTimeNanos, packetWrapper.map(function));
   }
 
   @Override
   public ScheduledPacket<Wrapper> copy() {
-    return new ScheduledPacket<>(scheduledDequeueTime, packetWrapper.copy());
+    return new ScheduledPacket<>(scheduledDequeueTimeNanos, packetWrapper.copy());
   }
 
   @Override
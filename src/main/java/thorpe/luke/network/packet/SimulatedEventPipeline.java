@@ -1,10 +1,9 @@
 package thorpe.luke.network.packet;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import thorpe.luke.distribution.ExponentialDistribution;
+import thorpe.luke.time.EpochNanos;
 
 public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<Wrapper> {
@@ -15,19 +14,19 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
   private final NeutralPacketFilter<Wrapper> outputBuffer;
   private final ChronoUnit timeUnit;
   private final Random random;
-  private LocalDateTime now;
+  private long nowNanos;
 
   public SimulatedEventPipeline(
       PacketPipeline<Wrapper> defaultPacketPipeline,
       List<NetworkEvent> networkEvents,
       ChronoUnit timeUnit,
-      LocalDateTime startTime,
+      long startTimeNanos,
       Random random) {
     this.stateTracker = new StateTracker();
     this.outputBuffer = new NeutralPacketFilter<>();
     this.timeUnit = timeUnit;
     this.random = random;
-    this.now = startTime;
+    this.nowNanos = startTimeNanos;
 
     this.states = new ArrayList<>(networkEvents.size() + 1);
     State defaultState = new State(Integer.MIN_VALUE, 0.0, 0.0, defaultPacketPipeline);
@@ -38,28 +37,32 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
     for (NetworkEvent networkEvent : networkEvents) {
       State state = new State(nextPrecedence++, networkEvent);
       states.add(state);
-      LocalDateTime eventStartTime = sampleFromEventDurationDistribution(state.getMeanInterval());
-      eventQueue.offer(new ScheduledEvent(eventStartTime, EventType.START, state));
+      long eventStartTimeNanos = sampleFromEventDurationDistribution(state.getMeanInterval());
+      eventQueue.offer(new ScheduledEvent(eventStartTimeNanos, EventType.START, state));
     }
   }
 
-  private LocalDateTime sampleFromEventDurationDistribution(double meanDuration) {
+  private long sampleFromEventDurationDistribution(double meanDuration) {
     ExponentialDistribution eventDurationDistribution =
         new ExponentialDistribution(1.0 / meanDuration);
-    long eventDuration = Math.round(eventDurationDistribution.sample(random));
-    return now.plus(Duration.of(eventDuration, timeUnit));
+    long eventDuration = Math.round(eventDurationDistribution.sampleAsDouble(random));
+    return EpochNanos.plus(nowNanos, EpochNanos.toNanos(eventDuration, timeUnit));
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    this.now = now;
-    states
-        .stream()
-        .map(State::getPacketPipeline)
-        .forEach(packetPipeline -> packetPipeline.tick(now));
+  public void tick(long nowNanos) {
+    tick(nowNanos, 1);
+  }
+
+  @Override
+  public void tick(long nowNanos, int maxPacketsPerStage) {
+    this.nowNanos = nowNanos;
+    for (State state : states) {
+      state.getPacketPipeline().tick(nowNanos, maxPacketsPerStage);
+    }
     do {
       ScheduledEvent scheduledEvent = eventQueue.peek();
-      if (scheduledEvent == null || scheduledEvent.getScheduledInvocationTime().isAfter(now)) {
+      if (scheduledEvent == null || scheduledEvent.getScheduledInvocationTimeNanos() > nowNanos) {
         return;
       }
       eventQueue.poll();
@@ -67,15 +70,13 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
       switch (scheduledEvent.getEventType()) {
         case START:
           stateTracker.push(state);
-          LocalDateTime eventFinishTime =
-              sampleFromEventDurationDistribution(state.getMeanDuration());
-          eventQueue.offer(new ScheduledEvent(eventFinishTime, EventType.FINISH, state));
+          long eventFinishTimeNanos = sampleFromEventDurationDistribution(state.getMeanDuration());
+          eventQueue.offer(new ScheduledEvent(eventFinishTimeNanos, EventType.FINISH, state));
           break;
         case FINISH:
           stateTracker.pop(state);
-          LocalDateTime eventStartTime =
-              sampleFromEventDurationDistribution(state.getMeanInterval());
-          eventQueue.offer(new ScheduledEvent(eventStartTime, EventType.START, state));
+          long eventStartTimeNanos = sampleFromEventDurationDistribution(state.getMeanInterval());
+          eventQueue.offer(new ScheduledEvent(eventStartTimeNanos, EventType.START, state));
           break;
       }
     } while (true);
@@ -96,6 +97,21 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
     return outputBuffer.tryDequeue();
   }
 
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    long nextDequeueTimeNanos = outputBuffer.peekNextDequeueTimeNanos();
+    for (State state : states) {
+      nextDequeueTimeNanos =
+          Math.min(nextDequeueTimeNanos, state.getPacketPipeline().peekNextDequeueTimeNanos());
+    }
+    ScheduledEvent scheduledEvent = eventQueue.peek();
+    if (scheduledEvent != null) {
+      nextDequeueTimeNanos =
+          Math.min(nextDequeueTimeNanos, scheduledEvent.getScheduledInvocationTimeNanos());
+    }
+    return nextDequeueTimeNanos;
+  }
+
   private class State implements Comparable<State> {
     private final int precedence;
     private final double meanInterval;
@@ -118,7 +134,7 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
           precedence,
           networkEvent.getMeanInterval(),
           networkEvent.getMeanDuration(),
-          new PacketPipeline<>(networkEvent.getPacketPipelineParameters(), now));
+          new PacketPipeline<>(networkEvent.getPacketPipelineParameters(), nowNanos));
     }
 
     public double getMeanInterval() {
@@ -141,19 +157,18 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
 
   private class ScheduledEvent implements Comparable<ScheduledEvent> {
 
-    private final LocalDateTime scheduledInvocationTime;
+    private final long scheduledInvocationTimeNanos;
     private final EventType eventType;
     private final State state;
 
-    private ScheduledEvent(
-        LocalDateTime scheduledInvocationTime, EventType eventType, State state) {
-      this.scheduledInvocationTime = scheduledInvocationTime;
+    private ScheduledEvent(long scheduledInvocationTimeNanos, EventType eventType, State state) {
+      this.scheduledInvocationTimeNanos = scheduledInvocationTimeNanos;
       this.eventType = eventType;
       this.state = state;
     }
 
-    public LocalDateTime getScheduledInvocationTime() {
-      return scheduledInvocationTime;
+    public long getScheduledInvocationTimeNanos() {
+      return scheduledInvocationTimeNanos;
     }
 
     public EventType getEventType() {
@@ -166,7 +181,7 @@ public class SimulatedEventPipeline<Wrapper extends PacketWrapper<Wrapper>>
 
     @Override
     public int compareTo(ScheduledEvent that) {
-      return this.scheduledInvocationTime.compareTo(that.scheduledInvocationTime);
+      return Long.compare(this.scheduledInvocationTimeNanos, that.scheduledInvocationTimeNanos);
     }
   }
 
@@ -1,54 +1,64 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import thorpe.luke.distribution.Distribution;
+import java.util.function.Consumer;
+import thorpe.luke.distribution.BooleanDistribution;
+import thorpe.luke.distribution.IntDistribution;
+import thorpe.luke.distribution.PrefetchingBooleanSampler;
 
 public class SimulatedPacketCorruptionFilter<Wrapper extends PacketWrapper<Wrapper>>
-    implements PacketFilter<Wrapper> {
+    implements StatelessPacketFilter<Wrapper> {
 
   private final NeutralPacketFilter<Wrapper> neutralPacketFilter = new NeutralPacketFilter<>();
-  private final Distribution<Boolean> corruptionDistribution;
-  private final Distribution<Integer> byteCorruptionDistribution;
-  private final Distribution<Integer> bitFlippingDistribution;
+  private final Consumer<Wrapper> neutralPacketSink = neutralPacketFilter::enqueue;
+  // Only the per-packet coin flips are drawn in bulk, since corrupted packets are the exception.
+  private final PrefetchingBooleanSampler corruptionSampler;
+  private final IntDistribution byteCorruptionDistribution;
+  private final IntDistribution bitFlippingDistribution;
   private final Random random;
 
   public SimulatedPacketCorruptionFilter(
-      Distribution<Boolean> corruptionDistribution,
-      Distribution<Integer> byteCorruptionDistribution,
-      Distribution<Integer> bitFlippingDistribution,
+      BooleanDistribution corruptionDistribution,
+      IntDistribution byteCorruptionDistribution,
+      IntDistribution bitFlippingDistribution,
       Random random) {
-    this.corruptionDistribution = corruptionDistribution;
+    this.corruptionSampler = new PrefetchingBooleanSampler(corruptionDistribution, random);
     this.byteCorruptionDistribution = byteCorruptionDistribution;
     this.bitFlippingDistribution = bitFlippingDistribution;
     this.random = random;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
+  public void tick(long nowNanos) {
     // Do nothing.
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    if (corruptionDistribution.sample(random)) {
+    transform(packetWrapper, neutralPacketSink);
+  }
+
+  @Override
+  public void transform(Wrapper packetWrapper, Consumer<Wrapper> downstream) {
+    if (corruptionSampler.nextBoolean()) {
       packetWrapper = corrupt(packetWrapper);
     }
-    neutralPacketFilter.enqueue(packetWrapper);
+    downstream.accept(packetWrapper);
   }
 
   private Wrapper corrupt(Wrapper packetWrapper) {
     return packetWrapper.map(
         packet -> {
-          List<Byte> bytes = packet.getData();
-          int byteCorruptionIndex = byteCorruptionDistribution.sample(random) % bytes.size();
-          int bitFlippingIndex = bitFlippingDistribution.sample(random) & (Byte.SIZE - 1);
-          int bitFlippingMask = 1 << bitFlippingIndex;
-          byte byteToCorrupt = bytes.get(byteCorruptionIndex);
-          bytes.set(byteCorruptionIndex, (byte) (byteToCorrupt ^ bitFlippingMask));
-          return new Packet(bytes);
+          // A datagram can legally be empty, in which case there is nothing to corrupt.
+          if (packet.length() == 0) {
+            return packet;
+          }
+          int byteCorruptionIndex =
+              byteCorruptionDistribution.sampleAsInt(random) % packet.length();
+          int bitFlippingIndex = bitFlippingDistribution.sampleAsInt(random) & (Byte.SIZE - 1);
+          byte bitFlippingMask = (byte) (1 << bitFlippingIndex);
+          return packet.flipBits(byteCorruptionIndex, bitFlippingMask);
         });
   }
 
@@ -56,4 +66,9 @@ public class SimulatedPacketCorruptionFilter<Wrapper extends PacketWrapper<Wrapp
   public Optional<Wrapper> tryDequeue() {
     return neutralPacketFilter.tryDequeue();
   }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return neutralPacketFilter.peekNextDequeueTimeNanos();
+  }
 }
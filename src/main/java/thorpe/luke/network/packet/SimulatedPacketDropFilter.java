@@ -1,31 +1,36 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Random;
-import thorpe.luke.distribution.Distribution;
+import java.util.function.Consumer;
+import thorpe.luke.distribution.BooleanDistribution;
+import thorpe.luke.distribution.PrefetchingBooleanSampler;
 
 public class SimulatedPacketDropFilter<Wrapper extends PacketWrapper<Wrapper>>
-    implements PacketFilter<Wrapper> {
+    implements StatelessPacketFilter<Wrapper> {
 
   private final NeutralPacketFilter<Wrapper> neutralPacketFilter = new NeutralPacketFilter<>();
-  private final Distribution<Boolean> dropDistribution;
-  private final Random random;
+  private final Consumer<Wrapper> neutralPacketSink = neutralPacketFilter::enqueue;
+  private final PrefetchingBooleanSampler dropSampler;
 
-  public SimulatedPacketDropFilter(Distribution<Boolean> dropDistribution, Random random) {
-    this.dropDistribution = dropDistribution;
-    this.random = random;
+  public SimulatedPacketDropFilter(BooleanDistribution dropDistribution, Random random) {
+    this.dropSampler = new PrefetchingBooleanSampler(dropDistribution, random);
   }
 
   @Override
-  public void tick(LocalDateTime now) {
+  public void tick(long nowNanos) {
     // Do nothing.
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    if (!dropDistribution.sample(random)) {
-      neutralPacketFilter.enqueue(packetWrapper);
+    transform(packetWrapper, neutralPacketSink);
+  }
+
+  @Override
+  public void transform(Wrapper packetWrapper, Consumer<Wrapper> downstream) {
+    if (!dropSampler.nextBoolean()) {
+      downstream.accept(packetWrapper);
     }
   }
 
@@ -33,4 +38,9 @@ public class SimulatedPacketDropFilter<Wrapper extends PacketWrapper<Wrapper>>
   public Optional<Wrapper> tryDequeue() {
     return neutralPacketFilter.tryDequeue();
   }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return neutralPacketFilter.peekNextDequeueTimeNanos();
+  }
 }
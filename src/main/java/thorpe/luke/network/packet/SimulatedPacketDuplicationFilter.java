@@ -1,34 +1,38 @@
 package thorpe.luke.network.packet;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Random;
-import thorpe.luke.distribution.Distribution;
+import java.util.function.Consumer;
+import thorpe.luke.distribution.IntDistribution;
+import thorpe.luke.distribution.PrefetchingIntSampler;
 
 public class SimulatedPacketDuplicationFilter<Wrapper extends PacketWrapper<Wrapper>>
-    implements PacketFilter<Wrapper> {
+    implements StatelessPacketFilter<Wrapper> {
 
   private final NeutralPacketFilter<Wrapper> neutralPacketFilter = new NeutralPacketFilter<>();
-  private final Distribution<Integer> duplicationDistribution;
-  private final Random random;
+  private final Consumer<Wrapper> neutralPacketSink = neutralPacketFilter::enqueue;
+  private final PrefetchingIntSampler duplicationSampler;
 
-  public SimulatedPacketDuplicationFilter(
-      Distribution<Integer> duplicationDistribution, Random random) {
-    this.duplicationDistribution = duplicationDistribution;
-    this.random = random;
+  public SimulatedPacketDuplicationFilter(IntDistribution duplicationDistribution, Random random) {
+    this.duplicationSampler = new PrefetchingIntSampler(duplicationDistribution, random);
   }
 
   @Override
-  public void tick(LocalDateTime now) {
+  public void tick(long nowNanos) {
     // Do nothing.
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    neutralPacketFilter.enqueue(packetWrapper);
-    int numberOfDuplicatePackets = duplicationDistribution.sample(random);
+    transform(packetWrapper, neutralPacketSink);
+  }
+
+  @Override
+  public void transform(Wrapper packetWrapper, Consumer<Wrapper> downstream) {
+    downstream.accept(packetWrapper);
+    int numberOfDuplicatePackets = duplicationSampler.nextInt();
     for (int i = 0; i < numberOfDuplicatePackets; i++) {
-      neutralPacketFilter.enqueue(packetWrapper.copy());
+      downstream.accept(packetWrapper.copy());
     }
   }
 
@@ -36,4 +40,9 @@ public class SimulatedPacketDuplicationFilter<Wrapper extends PacketWrapper<Wrap
   public Optional<Wrapper> tryDequeue() {
     return neutralPacketFilter.tryDequeue();
   }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return neutralPacketFilter.peekNextDequeueTimeNanos();
+  }
 }
@@ -1,48 +1,51 @@
 package thorpe.luke.network.packet;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.Random;
-import thorpe.luke.distribution.Distribution;
+import thorpe.luke.distribution.DoubleDistribution;
+import thorpe.luke.distribution.PrefetchingDoubleSampler;
+import thorpe.luke.time.EpochNanos;
 
 public class SimulatedPacketLatencyFilter<Wrapper extends PacketWrapper<Wrapper>>
     implements PacketFilter<Wrapper> {
 
   private final PacketLatencyFilter<Wrapper> packetLatencyFilter;
-  private final Distribution<Double> latencyDistribution;
+  private final PrefetchingDoubleSampler latencySampler;
   private final ChronoUnit timeUnit;
-  private final Random random;
-  private LocalDateTime now;
+  private long nowNanos;
 
   public SimulatedPacketLatencyFilter(
-      Distribution<Double> latencyDistribution,
+      DoubleDistribution latencyDistribution,
       ChronoUnit timeUnit,
-      LocalDateTime startTime,
+      long startTimeNanos,
       Random random) {
-    this.packetLatencyFilter = new PacketLatencyFilter<>(startTime);
-    this.latencyDistribution = latencyDistribution;
+    this.packetLatencyFilter = new PacketLatencyFilter<>(startTimeNanos);
+    this.latencySampler = new PrefetchingDoubleSampler(latencyDistribution, random);
     this.timeUnit = timeUnit;
-    this.random = random;
-    this.now = startTime;
+    this.nowNanos = startTimeNanos;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    this.now = now;
-    packetLatencyFilter.tick(now);
+  public void tick(long nowNanos) {
+    this.nowNanos = nowNanos;
+    packetLatencyFilter.tick(nowNanos);
   }
 
   @Override
   public void enqueue(Wrapper packetWrapper) {
-    long latency = Math.round(latencyDistribution.sample(random));
-    LocalDateTime scheduledDequeueTime = now.plus(Duration.of(latency, timeUnit));
-    packetLatencyFilter.enqueue(new ScheduledPacket<>(scheduledDequeueTime, packetWrapper));
+    long latencyNanos = EpochNanos.toNanos(latencySampler.nextDouble(), timeUnit);
+    long scheduledDequeueTimeNanos = EpochNanos.plus(nowNanos, latencyNanos);
+    packetLatencyFilter.enqueue(new ScheduledPacket<>(scheduledDequeueTimeNanos, packetWrapper));
   }
 
   @Override
   public Optional<Wrapper> tryDequeue() {
     return packetLatencyFilter.tryDequeue().map(ScheduledPacket::getPacketWrapper);
   }
+
+  @Override
+  public long peekNextDequeueTimeNanos() {
+    return packetLatencyFilter.peekNextDequeueTimeNanos();
+  }
 }
@@ -0,0 +1,9 @@
+package thorpe.luke.network.packet;
+
+import java.util.function.Consumer;
+
+// A filter whose decisions only depend on the packet in hand, so that it can be fused with others.
+interface StatelessPacketFilter<Wrapper extends PacketWrapper<Wrapper>>
+    extends PacketFilter<Wrapper> {
+  void transform(Wrapper packetWrapper, Consumer<Wrapper> downstream);
+}
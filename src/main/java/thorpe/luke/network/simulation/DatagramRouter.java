@@ -0,0 +1,104 @@
+package thorpe.luke.network.simulation;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.simulation.mail.PostalService;
+import thorpe.luke.network.simulation.worker.WorkerAddress;
+import thorpe.luke.util.ByteUtils;
+
+public class DatagramRouter {
+
+  // Bounds how long the router waits for datagrams before checking whether the simulation is over.
+  private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+  private final Selector selector;
+  private final ByteBuffer receiveBuffer;
+  private final Map<InetAddress, WorkerAddress> privateIpAddressToWorkerAddressMap;
+  private final PostalService postalService;
+
+  public DatagramRouter(
+      int datagramBufferSize,
+      Map<DatagramChannel, WorkerAddress> publicChannelToWorkerAddressMap,
+      Map<InetAddress, WorkerAddress> privateIpAddressToWorkerAddressMap,
+      PostalService postalService)
+      throws IOException {
+    this.selector = Selector.open();
+    this.receiveBuffer = ByteBuffer.allocateDirect(datagramBufferSize);
+    this.privateIpAddressToWorkerAddressMap = privateIpAddressToWorkerAddressMap;
+    this.postalService = postalService;
+    for (Map.Entry<DatagramChannel, WorkerAddress> publicChannelToWorkerAddressEntry :
+        publicChannelToWorkerAddressMap.entrySet()) {
+      DatagramChannel publicChannel = publicChannelToWorkerAddressEntry.getKey();
+      publicChannel.configureBlocking(false);
+      publicChannel.register(
+          selector, SelectionKey.OP_READ, publicChannelToWorkerAddressEntry.getValue());
+    }
+  }
+
+  public void routeUntil(BooleanSupplier isFinished) {
+    try {
+      while (!isFinished.getAsBoolean()) {
+        selector.select(SELECT_TIMEOUT_MILLIS);
+        Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+        while (selectedKeys.hasNext()) {
+          SelectionKey selectedKey = selectedKeys.next();
+          selectedKeys.remove();
+          route((DatagramChannel) selectedKey.channel(), (WorkerAddress) selectedKey.attachment());
+        }
+      }
+    } catch (IOException e) {
+      throw new PacketCourierSimulationDatagramRoutingException(e);
+    } finally {
+      close();
+    }
+  }
+
+  private void route(DatagramChannel publicChannel, WorkerAddress destinationAddress)
+      throws IOException {
+    do {
+      // Buffer casts keep the bytecode compatible with the Java 8 runtime.
+      ((Buffer) receiveBuffer).clear();
+      SocketAddress sourceSocketAddress = publicChannel.receive(receiveBuffer);
+      if (sourceSocketAddress == null) {
+        return;
+      }
+      InetAddress sourceIpAddress = ((InetSocketAddress) sourceSocketAddress).getAddress();
+      WorkerAddress sourceAddress = privateIpAddressToWorkerAddressMap.get(sourceIpAddress);
+      if (sourceAddress == null) {
+        continue;
+      }
+      ((Buffer) receiveBuffer).flip();
+      Packet packet =
+          Packet.fromBuffer(receiveBuffer, ByteUtils.toInt(sourceIpAddress.getAddress()));
+      // Every node's datagrams are received on this one thread, so waiting for room in one
+      // connection would hold up all the others. Like a real socket, a full ingress drops instead.
+      postalService.mailWithoutBlocking(sourceAddress, destinationAddress, packet);
+    } while (true);
+  }
+
+  private void close() {
+    for (SelectionKey key : selector.keys()) {
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // Do nothing.
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      // Do nothing.
+    }
+  }
+}
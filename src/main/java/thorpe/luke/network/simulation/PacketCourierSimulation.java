@@ -3,21 +3,25 @@ package thorpe.luke.network.simulation;
 import java.io.File;
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.DatagramChannel;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import thorpe.luke.log.BufferedFileLogger;
 import thorpe.luke.log.Logger;
 import thorpe.luke.log.MultiLogger;
 import thorpe.luke.log.TemplateLogger;
-import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.packet.IngressOverflowPolicy;
 import thorpe.luke.network.packet.PacketPipeline;
 import thorpe.luke.network.packet.PacketPipeline.Parameters;
+import thorpe.luke.network.simulation.mail.ActivityCounter;
 import thorpe.luke.network.simulation.mail.Mail;
 import thorpe.luke.network.simulation.mail.PacketCourierPostalService;
 import thorpe.luke.network.simulation.mail.PostalService;
@@ -26,7 +30,11 @@ import thorpe.luke.network.simulation.node.NodeAddress;
 import thorpe.luke.network.simulation.node.NodeConnection;
 import thorpe.luke.network.simulation.node.NodeTopology;
 import thorpe.luke.network.simulation.worker.*;
+import thorpe.luke.time.Clock;
+import thorpe.luke.time.EpochNanos;
+import thorpe.luke.time.MonotonicClock;
 import thorpe.luke.time.TickableClock;
+import thorpe.luke.util.ExecutionModel;
 import thorpe.luke.util.ThreadNameGenerator;
 import thorpe.luke.util.UniqueLoopbackIpv4AddressGenerator;
 import thorpe.luke.util.error.ExceptionListener;
@@ -43,34 +51,60 @@ public class PacketCourierSimulation {
   private static final DateTimeFormatter CRASH_DUMP_DATE_FORMAT =
       DateTimeFormatter.ofPattern("yyyy_MM_dd_hh_mm_ss");
 
+  // Virtual time starts at the Unix epoch, 1970-01-01T00:00. It used to start in the year 0, but
+  // that lies outside the roughly 292 years either side of the epoch that nanoseconds can reach.
+  private static final long VIRTUAL_START_TIME_NANOS = 0L;
+
+  // Bounds how long the clock waits for its workers to go quiet, or for mail when nothing is in
+  // flight, so that the simulation still notices its workers finishing.
+  private static final long MAX_IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final int DEFAULT_ASYNC_WORKER_BATCH_SIZE = 64;
+
   private final String simulationName;
   private final PacketCourierPostalService postalService;
   private final boolean wallClockEnabled;
+  private final boolean eventDrivenClockEnabled;
+  private final int maxPacketsPerTick;
   private final TickableClock clock;
+  private final Clock wallClock;
   private final Logger logger;
   private final WorkerProcessMonitor workerProcessMonitor;
   private final int port;
   private final Map<Node, Thread> nodeThreads;
-  private final Collection<Thread> datagramRoutingThreads;
+  private final Thread datagramRoutingThread;
+  private final DatagramForwarder datagramForwarder;
+  private final NodeTopology nodeTopology;
+  private final Map<Node, AsyncWorkerScript> asyncWorkerScripts;
+  private final Map<Node, CompletableFuture<Void>> asyncWorkerCompletions;
+  private final AsyncWorkerScheduler asyncWorkerScheduler;
+  private final SimulatedTimer asyncWorkerTimer;
 
   private PacketCourierSimulation(
       String simulationName,
       Map<String, RunnableNode> nodes,
+      Map<Node, AsyncWorkerScript> asyncWorkerScripts,
+      int asyncWorkerBatchSize,
       NodeTopology nodeTopology,
       PacketCourierPostalService postalService,
       boolean wallClockEnabled,
+      boolean eventDrivenClockEnabled,
+      int maxPacketsPerTick,
       TickableClock clock,
       Logger logger,
       WorkerProcessMonitor workerProcessMonitor,
       Path crashDumpLocation,
       int port,
-      int datagramBufferSize,
-      Map<InetAddress, WorkerAddress> privateIpAddressToWorkerAddressMap,
-      Map<Node, DatagramSocket> nodeToPublicSocketMap) {
+      DatagramRouter datagramRouter,
+      DatagramForwarder datagramForwarder,
+      ExecutionModel executionModel) {
     this.simulationName = simulationName;
     this.postalService = postalService;
     this.wallClockEnabled = wallClockEnabled;
+    this.eventDrivenClockEnabled = eventDrivenClockEnabled;
+    this.maxPacketsPerTick = maxPacketsPerTick;
     this.clock = clock;
+    this.wallClock = new MonotonicClock(clock.nowNanos());
     this.logger =
         new TemplateLogger(
             message -> {
@@ -89,38 +123,41 @@ public class PacketCourierSimulation {
             .collect(
                 Collectors.toMap(
                     RunnableNode::getNode,
-                    runnableNode ->
-                        new Thread(
-                            () -> runnableNode.run(nodeTopology, postalService, crashDumpLocation),
-                            ThreadNameGenerator.generateThreadName(
-                                runnableNode.getNode().getAddress().getName()))));
-    // Configure datagram routing layer logic.
-    Map<InetAddress, WorkerAddress> publicIpAddressToWorkerAddressMap =
-        nodeToPublicSocketMap
-            .entrySet()
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    nodeToPublicSocketEntry -> nodeToPublicSocketEntry.getValue().getLocalAddress(),
-                    nodeToPublicSocketEntry ->
-                        nodeToPublicSocketEntry.getKey().getAddress().asRootWorkerAddress()));
-    this.datagramRoutingThreads =
-        nodeToPublicSocketMap
-            .values()
-            .stream()
-            .map(
-                publicSocket ->
-                    new Thread(
-                        () ->
-                            listenForAndRouteDatagramPackets(
-                                datagramBufferSize,
-                                publicSocket,
-                                privateIpAddressToWorkerAddressMap,
-                                publicIpAddressToWorkerAddressMap,
-                                postalService),
-                        ThreadNameGenerator.generateThreadName(
-                            "Datagram Router at " + publicSocket.getLocalAddress())))
-            .collect(Collectors.toList());
+                    runnableNode -> {
+                      // Root workers are registered before any node starts sending mail, so that
+                      // none of it is lost while their threads are still starting up.
+                      Worker worker =
+                          runnableNode.registerWorker(
+                              nodeTopology, postalService, crashDumpLocation, executionModel);
+                      return executionModel.newThread(
+                          worker::run,
+                          ThreadNameGenerator.generateThreadName(
+                              runnableNode.getNode().getAddress().getName()));
+                    }));
+    this.datagramRoutingThread =
+        datagramRouter == null
+            ? null
+            : new Thread(
+                () -> datagramRouter.routeUntil(this::hasFinished),
+                ThreadNameGenerator.generateThreadName("Datagram Router"));
+    this.datagramForwarder = datagramForwarder;
+    this.nodeTopology = nodeTopology;
+    this.asyncWorkerScripts = asyncWorkerScripts;
+    this.asyncWorkerCompletions = new HashMap<>();
+    // Asynchronous workers share a work-stealing pool, rather than holding a thread each. Unless the
+    // wall clock is in use, their timers are fired by the simulation as it ticks.
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    if (asyncWorkerScripts.isEmpty()) {
+      this.asyncWorkerTimer = null;
+      this.asyncWorkerScheduler = null;
+    } else if (wallClockEnabled) {
+      this.asyncWorkerTimer = null;
+      this.asyncWorkerScheduler = new AsyncWorkerScheduler(parallelism, asyncWorkerBatchSize);
+    } else {
+      this.asyncWorkerTimer = new SimulatedTimer(clock.nowNanos());
+      this.asyncWorkerScheduler =
+          new AsyncWorkerScheduler(parallelism, asyncWorkerBatchSize, asyncWorkerTimer);
+    }
   }
 
   public static Configuration configuration() {
@@ -151,48 +188,13 @@ public class PacketCourierSimulation {
     }
   }
 
-  private void listenForAndRouteDatagramPackets(
-      int datagramBufferSize,
-      DatagramSocket publicSocket,
-      Map<InetAddress, WorkerAddress> privateIpAddressToWorkerAddressMap,
-      Map<InetAddress, WorkerAddress> publicIpAddressToWorkerAddressMap,
-      PostalService postalService) {
-    byte[] buffer =
-        new byte[datagramBufferSize + publicSocket.getLocalAddress().getAddress().length];
-    do {
-      DatagramPacket datagramPacket = new DatagramPacket(buffer, buffer.length);
-      try {
-        publicSocket.setSoTimeout(5_000);
-        publicSocket.receive(datagramPacket);
-      } catch (SocketTimeoutException e) {
-        if (hasFinished()) {
-          return;
-        }
-      } catch (IOException e) {
-        throw new PacketCourierSimulationDatagramRoutingException(e);
-      }
-      if (datagramPacket.getAddress() == null) {
-        continue;
-      }
-      byte[] sourceIpAddress = datagramPacket.getAddress().getAddress();
-      System.arraycopy(sourceIpAddress, 0, buffer, datagramBufferSize, sourceIpAddress.length);
-      WorkerAddress sourceAddress =
-          privateIpAddressToWorkerAddressMap.get(datagramPacket.getAddress());
-      WorkerAddress destinationAddress =
-          publicIpAddressToWorkerAddressMap.get(publicSocket.getLocalAddress());
-      if (sourceAddress != null && destinationAddress != null) {
-        postalService.mail(sourceAddress, destinationAddress, Packet.fromBytes(buffer));
-      }
-    } while (true);
-  }
-
   public void startWorkers() {
     if (workerProcessMonitor != null) {
       workerProcessMonitor.addLogger(logger);
       workerProcessMonitor.start();
     }
-    if (!datagramRoutingThreads.isEmpty()) {
-      datagramRoutingThreads.forEach(Thread::start);
+    if (datagramRoutingThread != null) {
+      datagramRoutingThread.start();
       logger.log("Now listening on port " + port);
     }
 
@@ -202,6 +204,18 @@ public class PacketCourierSimulation {
       nodeThread.start();
       logger.log("Node \"" + node.getAddress().getName() + "\" has been set to work");
     }
+    for (Map.Entry<Node, AsyncWorkerScript> asyncWorkerScriptEntry :
+        asyncWorkerScripts.entrySet()) {
+      Node node = asyncWorkerScriptEntry.getKey();
+      asyncWorkerCompletions.put(
+          node,
+          node.startAsyncWork(
+              asyncWorkerScriptEntry.getValue(),
+              nodeTopology,
+              postalService,
+              asyncWorkerScheduler));
+      logger.log("Node \"" + node.getAddress().getName() + "\" has been set to work");
+    }
 
     logger.log("Simulation is now fully operational");
   }
@@ -209,7 +223,33 @@ public class PacketCourierSimulation {
   private void waitForWorkers() {
     logger.log("All nodes have completed their work; simulation is now cleaning up resources");
     joinAll(nodeThreads.values());
-    joinAll(datagramRoutingThreads);
+    if (datagramRoutingThread != null) {
+      joinAll(Collections.singletonList(datagramRoutingThread));
+    }
+    for (Map.Entry<Node, CompletableFuture<Void>> asyncWorkerCompletionEntry :
+        asyncWorkerCompletions.entrySet()) {
+      try {
+        asyncWorkerCompletionEntry.getValue().join();
+      } catch (CompletionException e) {
+        handleException(
+            asyncWorkerCompletionEntry.getKey().getAddress().getName(),
+            logger,
+            e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+      }
+    }
+    if (asyncWorkerScheduler != null) {
+      asyncWorkerScheduler.shutdown();
+    }
+    postalService.shutdown();
+    long droppedMailCount = postalService.countDroppedMail();
+    if (droppedMailCount > 0) {
+      logger.log(droppedMailCount + " packets were dropped because ingress buffers were full");
+    }
+    long droppedDatagramCount = datagramForwarder.getDroppedDatagramCount();
+    if (droppedDatagramCount > 0) {
+      logger.log(
+          droppedDatagramCount + " datagrams were dropped because socket send buffers were full");
+    }
     if (workerProcessMonitor != null) {
       try {
         workerProcessMonitor.shutdown();
@@ -224,26 +264,68 @@ public class PacketCourierSimulation {
     logger.close();
   }
 
+  long getCurrentTimeNanos() {
+    return clock.nowNanos();
+  }
+
   private boolean hasFinished() {
-    return nodeThreads.values().stream().noneMatch(Thread::isAlive);
+    return nodeThreads.values().stream().noneMatch(Thread::isAlive)
+        && asyncWorkerCompletions.values().stream().allMatch(CompletableFuture::isDone);
   }
 
-  private void tick(LocalDateTime now) {
-    postalService.tick(now);
+  private void tick(long nowNanos) {
+    postalService.tick(nowNanos, maxPacketsPerTick);
+    if (asyncWorkerTimer != null) {
+      asyncWorkerTimer.tick(nowNanos);
+    }
   }
 
   public void run() {
     startWorkers();
     while (!hasFinished()) {
-      LocalDateTime now = clock.now();
-      tick(now);
-      clock.tick(advanceTimeFrom(now));
+      long nowNanos = clock.nowNanos();
+      tick(nowNanos);
+      clock.tick(advanceTimeFrom(nowNanos));
     }
     waitForWorkers();
   }
 
-  private LocalDateTime advanceTimeFrom(LocalDateTime now) {
-    return wallClockEnabled ? LocalDateTime.now() : now.plus(1, ChronoUnit.MILLIS);
+  private long advanceTimeFrom(long nowNanos) {
+    if (wallClockEnabled) {
+      return advanceWallClockFrom(nowNanos);
+    } else if (eventDrivenClockEnabled) {
+      return advanceToNextDeliveryTimeFrom(nowNanos);
+    }
+    return nowNanos + TickableClock.TICK_NANOS;
+  }
+
+  private long advanceWallClockFrom(long nowNanos) {
+    long nextDeliveryTimeNanos = postalService.peekNextDeliveryTimeNanos();
+    if (nextDeliveryTimeNanos > nowNanos) {
+      long sleepNanos = Math.min(nextDeliveryTimeNanos - nowNanos, MAX_IDLE_WAIT_NANOS);
+      postalService.awaitMail(sleepNanos);
+    }
+    return wallClock.nowNanos();
+  }
+
+  private long advanceToNextDeliveryTimeFrom(long nowNanos) {
+    ActivityCounter activityCounter = postalService.getActivityCounter();
+    if (!activityCounter.isIdle()) {
+      // Workers are still reacting to what has happened so far, and whatever they send must be sent
+      // at the current time. Anything they send without any latency is delivered on the next tick.
+      activityCounter.awaitIdle(MAX_IDLE_WAIT_NANOS);
+      return nowNanos;
+    }
+    long nextDeliveryTimeNanos = postalService.peekNextDeliveryTimeNanos();
+    if (asyncWorkerTimer != null) {
+      nextDeliveryTimeNanos = Math.min(nextDeliveryTimeNanos, asyncWorkerTimer.peekNextTimeNanos());
+    }
+    if (nextDeliveryTimeNanos == EpochNanos.NEVER) {
+      // Nothing is in flight, so there is no point in advancing time until the workers send mail.
+      postalService.awaitMail(MAX_IDLE_WAIT_NANOS);
+      return nowNanos;
+    }
+    return Math.max(nowNanos, nextDeliveryTimeNanos);
   }
 
   private static class RunnableNode {
@@ -255,9 +337,13 @@ public class PacketCourierSimulation {
       this.workerScript = workerScript;
     }
 
-    public void run(
-        NodeTopology nodeTopology, PostalService postalService, Path crashDumpLocation) {
-      node.doWork(workerScript, nodeTopology, crashDumpLocation, postalService);
+    public Worker registerWorker(
+        NodeTopology nodeTopology,
+        PostalService postalService,
+        Path crashDumpLocation,
+        ExecutionModel executionModel) {
+      return node.registerRootWorker(
+          workerScript, nodeTopology, crashDumpLocation, postalService, executionModel);
     }
 
     public Node getNode() {
@@ -275,7 +361,7 @@ public class PacketCourierSimulation {
         InetAddress privateIpAddress,
         Map<WorkerAddress, InetAddress> workerAddressToPublicIpMap,
         int datagramBufferSize,
-        Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap,
+        DatagramForwarder datagramForwarder,
         boolean processLoggingEnabled,
         WorkerProcessMonitor workerProcessMonitor,
         Path crashDumpLocation,
@@ -284,7 +370,7 @@ public class PacketCourierSimulation {
 
   @FunctionalInterface
   private interface PacketPipelineFactory {
-    PacketPipeline<Mail> getPacketPipeline(LocalDateTime startTime);
+    PacketPipeline<Mail> getPacketPipeline(long startTimeNanos);
   }
 
   public static class Configuration {
@@ -292,11 +378,20 @@ public class PacketCourierSimulation {
         new UniqueIpAddressGeneratorAdaptor();
     private final Map<String, Node> nameToNodeMap = new HashMap<>();
     private final Map<Node, WorkerScriptFactory> nodeToWorkerScriptFactoryMap = new HashMap<>();
+    private final Map<Node, AsyncWorkerScript> nodeToAsyncWorkerScriptMap = new HashMap<>();
     private final Map<NodeConnection, PacketPipelineFactory>
         nodeConnectionToPacketPipelineFactoryMap = new HashMap<>();
     private final Collection<Logger> loggers = new LinkedList<>();
     private String simulationName = "Packet Courier Simulation";
     private boolean wallClockEnabled = false;
+    private boolean eventDrivenClockEnabled = false;
+    private boolean virtualThreadsEnabled = false;
+    private ExecutionModel executionModel = null;
+    private int tickParallelism = 1;
+    private int maxPacketsPerTick = 1;
+    private int asyncWorkerBatchSize = DEFAULT_ASYNC_WORKER_BATCH_SIZE;
+    private Integer ingressCapacity = null;
+    private IngressOverflowPolicy ingressOverflowPolicy = IngressOverflowPolicy.DROP_TAIL;
     private boolean hasDatagramRoutingLayer = false;
     private Path crashDumpLocation = null;
     private int port = 0;
@@ -315,7 +410,7 @@ public class PacketCourierSimulation {
       return string.trim().isEmpty();
     }
 
-    private void addNode(String name, WorkerScriptFactory workerScriptFactory) {
+    private Node addNode(String name) {
       if (name == null) {
         throw new PacketCourierSimulationConfigurationException("Node name cannot be null.");
       } else if (isBlank(name)) {
@@ -327,11 +422,16 @@ public class PacketCourierSimulation {
 
       Node node = new Node(name);
       nameToNodeMap.put(name, node);
-      nodeToWorkerScriptFactoryMap.put(node, workerScriptFactory);
       NodeConnection nodeConnection = new NodeConnection(node, node);
       nodeConnectionToPacketPipelineFactoryMap.put(
           nodeConnection,
-          startTime -> new PacketPipeline<>(PacketPipeline.perfectParameters(), startTime));
+          startTimeNanos ->
+              createPacketPipeline(PacketPipeline.perfectParameters(), startTimeNanos));
+      return node;
+    }
+
+    private void addNode(String name, WorkerScriptFactory workerScriptFactory) {
+      nodeToWorkerScriptFactoryMap.put(addNode(name), workerScriptFactory);
     }
 
     public Configuration addNode(String name, WorkerScript workerScript) {
@@ -345,7 +445,7 @@ public class PacketCourierSimulation {
               privateIpAddress,
               workerAddressToPublicIpMap,
               datagramBufferSize,
-              privateIpAddressToPublicSocketMap,
+              datagramForwarder,
               processLoggingEnabled,
               workerProcessMonitor,
               crashDumpLocation,
@@ -354,6 +454,14 @@ public class PacketCourierSimulation {
       return this;
     }
 
+    public Configuration addAsyncNode(String name, AsyncWorkerScript asyncWorkerScript) {
+      if (asyncWorkerScript == null) {
+        throw new PacketCourierSimulationConfigurationException("Node script cannot be null.");
+      }
+      nodeToAsyncWorkerScriptMap.put(addNode(name), asyncWorkerScript);
+      return this;
+    }
+
     public Configuration addNode(
         String name, WorkerProcessConfiguration workerProcessConfiguration) {
       hasDatagramRoutingLayer = true;
@@ -368,7 +476,7 @@ public class PacketCourierSimulation {
               privateIpAddress,
               workerAddressToPublicIpMap,
               datagramBufferSize,
-              privateIpAddressToPublicSocketMap,
+              datagramForwarder,
               processLoggingEnabled,
               workerProcessMonitor,
               crashDumpLocation,
@@ -408,8 +516,7 @@ public class PacketCourierSimulation {
                 .withWorkerProcessFactory(workerProcessFactory)
                 .withPort(port)
                 .withPrivateIpAddress(privateIpAddress)
-                .withDatagramBufferSize(datagramBufferSize)
-                .withPrivateIpAddressToPublicSocketMap(privateIpAddressToPublicSocketMap)
+                .withDatagramForwarder(datagramForwarder)
                 .withProcessLoggingEnabled(processLoggingEnabled)
                 .withProcessMonitor(workerProcessMonitor)
                 .withExceptionListener(exceptionListener)
@@ -454,10 +561,20 @@ public class PacketCourierSimulation {
       }
 
       nodeConnectionToPacketPipelineFactoryMap.put(
-          nodeConnection, startTime -> new PacketPipeline<>(packetPipelineParameters, startTime));
+          nodeConnection,
+          startTimeNanos -> createPacketPipeline(packetPipelineParameters, startTimeNanos));
       return this;
     }
 
+    private PacketPipeline<Mail> createPacketPipeline(
+        Parameters packetPipelineParameters, long startTimeNanos) {
+      if (ingressCapacity == null) {
+        return new PacketPipeline<>(packetPipelineParameters, startTimeNanos);
+      }
+      return new PacketPipeline<>(
+          packetPipelineParameters, startTimeNanos, ingressCapacity, ingressOverflowPolicy);
+    }
+
     public Configuration withSimulationName(String simulationName) {
       this.simulationName = simulationName;
       return this;
@@ -473,6 +590,43 @@ public class PacketCourierSimulation {
       return this;
     }
 
+    public Configuration usingEventDrivenClock() {
+      eventDrivenClockEnabled = true;
+      return this;
+    }
+
+    public Configuration usingVirtualThreads() {
+      virtualThreadsEnabled = true;
+      return this;
+    }
+
+    public Configuration withExecutionModel(ExecutionModel executionModel) {
+      this.executionModel = executionModel;
+      return this;
+    }
+
+    public Configuration withTickParallelism(int tickParallelism) {
+      this.tickParallelism = tickParallelism;
+      return this;
+    }
+
+    public Configuration withMaxPacketsPerTick(int maxPacketsPerTick) {
+      this.maxPacketsPerTick = maxPacketsPerTick;
+      return this;
+    }
+
+    public Configuration withAsyncWorkerBatchSize(int asyncWorkerBatchSize) {
+      this.asyncWorkerBatchSize = asyncWorkerBatchSize;
+      return this;
+    }
+
+    public Configuration withIngressCapacity(
+        int ingressCapacity, IngressOverflowPolicy ingressOverflowPolicy) {
+      this.ingressCapacity = ingressCapacity;
+      this.ingressOverflowPolicy = ingressOverflowPolicy;
+      return this;
+    }
+
     public Configuration withCrashDumpLocation(Path crashDumpLocation) {
       this.crashDumpLocation = crashDumpLocation;
       return this;
@@ -504,7 +658,42 @@ public class PacketCourierSimulation {
     }
 
     public PacketCourierSimulation configure() {
+      if (wallClockEnabled && eventDrivenClockEnabled) {
+        throw new PacketCourierSimulationConfigurationException(
+            "The wall clock and the event-driven clock cannot both be enabled.");
+      } else if (tickParallelism < 1) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Tick parallelism should be greater than or equal to 1.");
+      } else if (maxPacketsPerTick < 1) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Max packets per tick should be greater than or equal to 1.");
+      } else if (asyncWorkerBatchSize < 1) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Async worker batch size should be greater than or equal to 1.");
+      } else if (ingressCapacity != null && ingressCapacity < 1) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Ingress capacity should be greater than or equal to 1.");
+      } else if (ingressOverflowPolicy == null) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Ingress overflow policy cannot be null.");
+      } else if (virtualThreadsEnabled && executionModel != null) {
+        throw new PacketCourierSimulationConfigurationException(
+            "Virtual threads and a custom execution model cannot both be enabled.");
+      }
       Logger logger = new MultiLogger(loggers);
+      // Configure execution model logic.
+      ExecutionModel executionModel = this.executionModel;
+      if (executionModel == null) {
+        if (virtualThreadsEnabled && ExecutionModel.isVirtualThreadSupported()) {
+          executionModel = ExecutionModel.virtualThreads();
+        } else {
+          if (virtualThreadsEnabled) {
+            logger.log(
+                "Virtual threads are not supported by this JVM; falling back to platform threads");
+          }
+          executionModel = ExecutionModel.platformThreads();
+        }
+      }
       // Configure topology logic.
       NodeTopology.Builder nodeTopologyBuilder = NodeTopology.builder();
       nameToNodeMap.keySet().forEach(nodeTopologyBuilder::addNode);
@@ -517,40 +706,37 @@ public class PacketCourierSimulation {
       }
       NodeTopology nodeTopology = nodeTopologyBuilder.build();
 
-      // Configure datagram socket logic.
-      Map<Node, DatagramSocket> nodeToPublicSocketMap = new HashMap<>();
+      // Configure datagram channel logic.
+      Map<Node, DatagramChannel> nodeToPublicChannelMap = new HashMap<>();
+      Map<WorkerAddress, InetAddress> workerAddressToPublicIpMap = new HashMap<>();
       if (this.hasDatagramRoutingLayer) {
         for (Node node : nameToNodeMap.values()) {
+          InetAddress publicIpAddress = uniqueIpAddressGenerator.generateUniqueIpv4Address();
           try {
-            nodeToPublicSocketMap.put(
+            nodeToPublicChannelMap.put(
                 node,
-                new DatagramSocket(port, uniqueIpAddressGenerator.generateUniqueIpv4Address()));
-          } catch (SocketException e) {
+                DatagramChannel.open(StandardProtocolFamily.INET)
+                    .bind(new InetSocketAddress(publicIpAddress, port)));
+          } catch (IOException e) {
             throw new PacketCourierSimulationConfigurationException(e);
           }
+          workerAddressToPublicIpMap.put(node.getAddress().asRootWorkerAddress(), publicIpAddress);
         }
       }
-      Map<WorkerAddress, InetAddress> workerAddressToPublicIpMap =
-          nodeToPublicSocketMap
-              .entrySet()
-              .stream()
-              .collect(
-                  Collectors.toMap(
-                      nodeToPublicSocketEntry ->
-                          nodeToPublicSocketEntry.getKey().getAddress().asRootWorkerAddress(),
-                      nodeToPublicSocketEntry ->
-                          nodeToPublicSocketEntry.getValue().getLocalAddress()));
 
       // Configure worker script and private socket logic.
       WorkerProcessMonitor workerProcessMonitor =
           new WorkerProcessMonitor(
               processMonitorCheckupInterval, simulationName + " Process Monitor");
-      Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap = new HashMap<>();
+      DatagramForwarder datagramForwarder = new DatagramForwarder();
       Map<InetAddress, WorkerAddress> privateIpAddressToWorkerAddressMap = new HashMap<>();
       Map<String, RunnableNode> nameToRunnableNodeMap =
           nameToNodeMap
               .entrySet()
               .stream()
+              .filter(
+                  nameToNodeEntry ->
+                      nodeToWorkerScriptFactoryMap.containsKey(nameToNodeEntry.getValue()))
               .collect(
                   Collectors.toMap(
                       Map.Entry::getKey,
@@ -558,8 +744,10 @@ public class PacketCourierSimulation {
                         Node node = nameToNodeEntry.getValue();
                         InetAddress privateIpAddress =
                             uniqueIpAddressGenerator.generateUniqueIpv4Address();
-                        DatagramSocket publicSocket = nodeToPublicSocketMap.get(node);
-                        privateIpAddressToPublicSocketMap.put(privateIpAddress, publicSocket);
+                        DatagramChannel publicChannel = nodeToPublicChannelMap.get(node);
+                        if (publicChannel != null) {
+                          datagramForwarder.register(privateIpAddress, publicChannel);
+                        }
                         privateIpAddressToWorkerAddressMap.put(
                             privateIpAddress, node.getAddress().asRootWorkerAddress());
                         WorkerScriptFactory workerScriptFactory =
@@ -572,7 +760,7 @@ public class PacketCourierSimulation {
                                 privateIpAddress,
                                 workerAddressToPublicIpMap,
                                 datagramBufferSize,
-                                privateIpAddressToPublicSocketMap,
+                                datagramForwarder,
                                 processLoggingEnabled,
                                 workerProcessMonitor,
                                 crashDumpLocation,
@@ -583,10 +771,8 @@ public class PacketCourierSimulation {
       // Configure packet pipeline logic.
       TickableClock clock =
           new TickableClock(
-              wallClockEnabled
-                  ? LocalDateTime.now()
-                  : LocalDateTime.of(0, Month.JANUARY, 1, 0, 0, 0, 0));
-      LocalDateTime startTime = clock.now();
+              wallClockEnabled ? EpochNanos.of(LocalDateTime.now()) : VIRTUAL_START_TIME_NANOS);
+      long startTimeNanos = clock.nowNanos();
       Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap =
           nodeConnectionToPacketPipelineFactoryMap
               .entrySet()
@@ -597,26 +783,58 @@ public class PacketCourierSimulation {
                       nodeConnectionToPacketPipelineFactoryEntry ->
                           nodeConnectionToPacketPipelineFactoryEntry
                               .getValue()
-                              .getPacketPipeline(startTime)));
+                              .getPacketPipeline(startTimeNanos)));
 
       // Configure simulation logic.
       PacketCourierPostalService postalService =
-          new PacketCourierPostalService(nameToNodeMap.values(), nodeConnectionToPacketPipelineMap);
+          new PacketCourierPostalService(
+              nameToNodeMap.values(),
+              nodeConnectionToPacketPipelineMap,
+              tickParallelism,
+              eventDrivenClockEnabled ? new ActivityCounter() : ActivityCounter.DISABLED);
+
+      // Configure datagram routing layer logic.
+      DatagramRouter datagramRouter = null;
+      if (!nodeToPublicChannelMap.isEmpty()) {
+        Map<DatagramChannel, WorkerAddress> publicChannelToWorkerAddressMap =
+            nodeToPublicChannelMap
+                .entrySet()
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        Map.Entry::getValue,
+                        nodeToPublicChannelEntry ->
+                            nodeToPublicChannelEntry.getKey().getAddress().asRootWorkerAddress()));
+        try {
+          datagramRouter =
+              new DatagramRouter(
+                  datagramBufferSize,
+                  publicChannelToWorkerAddressMap,
+                  privateIpAddressToWorkerAddressMap,
+                  postalService);
+        } catch (IOException e) {
+          throw new PacketCourierSimulationConfigurationException(e);
+        }
+      }
 
       return new PacketCourierSimulation(
           simulationName,
           nameToRunnableNodeMap,
+          nodeToAsyncWorkerScriptMap,
+          asyncWorkerBatchSize,
           nodeTopology,
           postalService,
           wallClockEnabled,
+          eventDrivenClockEnabled,
+          maxPacketsPerTick,
           clock,
           logger,
           processMonitorEnabled ? workerProcessMonitor : null,
           crashDumpLocation,
           port,
-          datagramBufferSize,
-          privateIpAddressToWorkerAddressMap,
-          nodeToPublicSocketMap);
+          datagramRouter,
+          datagramForwarder,
+          executionModel);
     }
   }
 
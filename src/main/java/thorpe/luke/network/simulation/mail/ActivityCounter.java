@@ -0,0 +1,62 @@
+package thorpe.luke.network.simulation.mail;
+
+import java.util.concurrent.atomic.AtomicLong;
+import thorpe.luke.time.Alarm;
+
+public class ActivityCounter {
+
+  // Used wherever nothing needs to know when the workers have gone quiet, so that counting costs
+  // nothing.
+  public static final ActivityCounter DISABLED = new ActivityCounter(false);
+
+  // Counts busy workers, plus mail and asynchronous tasks that have yet to be handled. Whatever ends
+  // one activity by starting another must count the new one first, so that the count never drops
+  // to zero in between.
+  private final boolean enabled;
+  private final AtomicLong count;
+  private final Alarm alarm;
+
+  public ActivityCounter() {
+    this(true);
+  }
+
+  private ActivityCounter(boolean enabled) {
+    this.enabled = enabled;
+    this.count = new AtomicLong();
+    this.alarm = new Alarm();
+  }
+
+  public void increment() {
+    increment(1);
+  }
+
+  public void increment(long delta) {
+    if (enabled && delta > 0) {
+      count.addAndGet(delta);
+    }
+  }
+
+  public void decrement() {
+    decrement(1);
+  }
+
+  public void decrement(long delta) {
+    if (enabled && delta > 0 && count.addAndGet(-delta) == 0) {
+      alarm.ring();
+    }
+  }
+
+  public boolean isIdle() {
+    return count.get() == 0;
+  }
+
+  // Only one thread may wait at a time.
+  public void awaitIdle(long timeoutNanos) {
+    long deadlineNanoTime = System.nanoTime() + timeoutNanos;
+    long remainingNanos = timeoutNanos;
+    while (!isIdle() && remainingNanos > 0) {
+      alarm.sleepFor(remainingNanos);
+      remainingNanos = deadlineNanoTime - System.nanoTime();
+    }
+  }
+}
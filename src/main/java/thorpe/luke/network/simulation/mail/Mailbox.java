@@ -1,22 +1,116 @@
 package thorpe.luke.network.simulation.mail;
 
+import java.util.Collection;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import thorpe.luke.network.packet.Packet;
 
 public class Mailbox {
 
   private final BlockingQueue<Packet> packets;
+  private final AtomicBoolean handingOver;
+  // Unread mail counts as activity. So does the owner, unless it is waiting for mail or has had its
+  // mail redirected, in which case the mail is handled as soon as it is delivered.
+  private final ActivityCounter activityCounter;
+  private volatile Consumer<Packet> recipient;
 
   public Mailbox() {
+    this(ActivityCounter.DISABLED);
+  }
+
+  public Mailbox(ActivityCounter activityCounter) {
     this.packets = new LinkedBlockingQueue<>();
+    this.handingOver = new AtomicBoolean(false);
+    this.activityCounter = activityCounter;
+    this.recipient = null;
   }
 
   public void post(Packet packet) {
+    activityCounter.increment();
     packets.offer(packet);
+    // The mail may have been redirected while the packet was being posted.
+    if (recipient != null) {
+      handOver();
+    }
+  }
+
+  public void redirectTo(Consumer<Packet> recipient) {
+    Consumer<Packet> previousRecipient = this.recipient;
+    if (previousRecipient != null && recipient == null) {
+      activityCounter.increment();
+    }
+    this.recipient = recipient;
+    handOver();
+    if (previousRecipient == null && recipient != null) {
+      activityCounter.decrement();
+    }
+  }
+
+  private void handOver() {
+    // Only one thread hands mail over at a time, so that the recipient is never called concurrently
+    // and sees the mail in the order in which it was posted. Whoever holds the flag when a packet
+    // is posted is responsible for it, hence the check for stragglers once the flag is cleared.
+    while (recipient != null && !packets.isEmpty() && handingOver.compareAndSet(false, true)) {
+      try {
+        Consumer<Packet> recipient;
+        Packet packet;
+        while ((recipient = this.recipient) != null && (packet = packets.poll()) != null) {
+          try {
+            recipient.accept(packet);
+          } finally {
+            activityCounter.decrement();
+          }
+        }
+      } finally {
+        handingOver.set(false);
+      }
+    }
   }
 
+  // Once a packet is taken, the owner is busy again and the packet is no longer unread, so the two
+  // cancel out.
   public Packet waitForMail() throws InterruptedException {
-    return packets.take();
+    activityCounter.decrement();
+    try {
+      return packets.take();
+    } catch (InterruptedException e) {
+      activityCounter.increment();
+      throw e;
+    }
+  }
+
+  public Optional<Packet> pollMail(long timeout, TimeUnit unit) throws InterruptedException {
+    activityCounter.decrement();
+    Packet packet = null;
+    try {
+      packet = packets.poll(timeout, unit);
+      return Optional.ofNullable(packet);
+    } finally {
+      if (packet == null) {
+        activityCounter.increment();
+      }
+    }
+  }
+
+  public Optional<Packet> tryReceive() {
+    Packet packet = packets.poll();
+    if (packet != null) {
+      activityCounter.decrement();
+    }
+    return Optional.ofNullable(packet);
+  }
+
+  public int drainMail(Collection<? super Packet> mail, int maxPackets) {
+    if (maxPackets <= 0) {
+      return 0;
+    }
+    // Like tryReceive, this never waits; it takes whatever has already arrived, in bulk.
+    int packetCount = packets.drainTo(mail, maxPackets);
+    activityCounter.decrement(packetCount);
+    return packetCount;
   }
 }
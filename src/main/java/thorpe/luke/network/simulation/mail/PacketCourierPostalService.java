@@ -1,11 +1,12 @@
 package thorpe.luke.network.simulation.mail;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.Map;
+import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import thorpe.luke.network.packet.Packet;
@@ -14,45 +15,301 @@ import thorpe.luke.network.simulation.node.Node;
 import thorpe.luke.network.simulation.node.NodeAddress;
 import thorpe.luke.network.simulation.node.NodeConnection;
 import thorpe.luke.network.simulation.worker.WorkerAddress;
+import thorpe.luke.time.Alarm;
+import thorpe.luke.time.EpochNanos;
 
 public class PacketCourierPostalService implements PostalService {
   private final Map<NodeAddress, Node> nodeToAddressMap;
-  private final ConcurrentMap<NodeConnection, PacketPipeline<Mail>>
-      nodeConnectionToPacketPipelineMap;
+  private final Map<NodeConnection, MailRoute> nodeConnectionToMailRouteMap;
+  private final List<Shard> shards;
+  private final ForkJoinPool tickPool;
+  private final ActivityCounter activityCounter;
+  private final Alarm alarm = new Alarm();
 
   public PacketCourierPostalService(
       Collection<Node> nodes,
       Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap) {
+    this(nodes, nodeConnectionToPacketPipelineMap, 1);
+  }
+
+  public PacketCourierPostalService(
+      Collection<Node> nodes,
+      Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap,
+      int tickParallelism) {
+    this(nodes, nodeConnectionToPacketPipelineMap, tickParallelism, ActivityCounter.DISABLED);
+  }
+
+  public PacketCourierPostalService(
+      Collection<Node> nodes,
+      Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap,
+      int tickParallelism,
+      ActivityCounter activityCounter) {
     this.nodeToAddressMap =
         nodes.stream().collect(Collectors.toMap(Node::getAddress, Function.identity()));
-    this.nodeConnectionToPacketPipelineMap =
-        new ConcurrentHashMap<>(nodeConnectionToPacketPipelineMap);
+    this.shards = shardByDestination(nodeConnectionToPacketPipelineMap, tickParallelism);
+    this.nodeConnectionToMailRouteMap =
+        shards
+            .stream()
+            .flatMap(shard -> shard.getMailRoutes().stream())
+            .collect(Collectors.toMap(MailRoute::getNodeConnection, Function.identity()));
+    this.tickPool = shards.size() > 1 ? new ForkJoinPool(shards.size()) : null;
+    this.activityCounter = activityCounter;
+  }
+
+  private static String nameOf(Node node) {
+    return node.getAddress().getName();
+  }
+
+  // Each destination is owned by exactly one shard, so every mailbox is only ever delivered to by
+  // one thread per tick and in a fixed order.
+  private static List<Shard> shardByDestination(
+      Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap,
+      int tickParallelism) {
+    Map<String, List<Entry<NodeConnection, PacketPipeline<Mail>>>> destinationToEntriesMap =
+        nodeConnectionToPacketPipelineMap
+            .entrySet()
+            .stream()
+            .sorted(Comparator.comparing(entry -> nameOf(entry.getKey().getSource())))
+            .collect(
+                Collectors.groupingBy(
+                    entry -> nameOf(entry.getKey().getDestination()),
+                    TreeMap::new,
+                    Collectors.toList()));
+    int shardCount = Math.max(1, Math.min(tickParallelism, destinationToEntriesMap.size()));
+    List<Shard> shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      shards.add(new Shard());
+    }
+    int nextShard = 0;
+    for (List<Entry<NodeConnection, PacketPipeline<Mail>>> entries :
+        destinationToEntriesMap.values()) {
+      for (Entry<NodeConnection, PacketPipeline<Mail>> entry : entries) {
+        shards.get(nextShard).addMailRoute(entry.getKey(), entry.getValue());
+      }
+      nextShard = (nextShard + 1) % shardCount;
+    }
+    return Collections.unmodifiableList(shards);
+  }
+
+  List<List<String>> getDestinationNamesByShard() {
+    return shards
+        .stream()
+        .map(
+            shard ->
+                shard
+                    .getMailRoutes()
+                    .stream()
+                    .map(mailRoute -> nameOf(mailRoute.getNodeConnection().getDestination()))
+                    .distinct()
+                    .collect(Collectors.toList()))
+        .collect(Collectors.toList());
   }
 
   public void tick(LocalDateTime now) {
-    for (Entry<NodeConnection, PacketPipeline<Mail>> networkConditionEntry :
-        nodeConnectionToPacketPipelineMap.entrySet()) {
-      NodeConnection nodeConnection = networkConditionEntry.getKey();
-      PacketPipeline<Mail> packetPipeline = networkConditionEntry.getValue();
-      packetPipeline.tick(now);
-      packetPipeline.tryDequeue().ifPresent(mail -> nodeConnection.getDestination().deliver(mail));
+    tick(EpochNanos.of(now), 1);
+  }
+
+  public void tick(long nowNanos, int maxPacketsPerTick) {
+    if (tickPool == null) {
+      shards.forEach(shard -> shard.tick(nowNanos, maxPacketsPerTick));
+      return;
     }
+    List<ForkJoinTask<?>> shardTicks =
+        shards
+            .stream()
+            .filter(Shard::isActive)
+            .map(shard -> ForkJoinTask.adapt(() -> shard.tick(nowNanos, maxPacketsPerTick)))
+            .collect(Collectors.toList());
+    // Blocks until every shard has ticked, so no shard runs ahead of the clock.
+    tickPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(shardTicks)));
+  }
+
+  public void shutdown() {
+    if (tickPool != null) {
+      tickPool.shutdown();
+    }
+  }
+
+  public long countDroppedMail() {
+    return nodeConnectionToMailRouteMap
+        .values()
+        .stream()
+        .mapToLong(mailRoute -> mailRoute.getPacketPipeline().countDroppedIngressPackets())
+        .sum();
+  }
+
+  public void awaitMail(long timeoutNanos) {
+    alarm.sleepFor(timeoutNanos);
+  }
+
+  public long peekNextDeliveryTimeNanos() {
+    long nextDeliveryTimeNanos = EpochNanos.NEVER;
+    for (Shard shard : shards) {
+      nextDeliveryTimeNanos = Math.min(nextDeliveryTimeNanos, shard.peekNextDeliveryTimeNanos());
+    }
+    return nextDeliveryTimeNanos;
   }
 
   @Override
-  public boolean mail(
-      WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet) {
+  public ActivityCounter getActivityCounter() {
+    return activityCounter;
+  }
+
+  private MailRoute findMailRoute(WorkerAddress sourceAddress, WorkerAddress destinationAddress) {
     Node source = nodeToAddressMap.get(sourceAddress.getHostingNodeAddress());
     Node destination = nodeToAddressMap.get(destinationAddress.getHostingNodeAddress());
     if (source == null || destination == null) {
+      return null;
+    }
+    return nodeConnectionToMailRouteMap.get(new NodeConnection(source, destination));
+  }
+
+  @Override
+  public boolean mail(
+      WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet) {
+    MailRoute mailRoute = findMailRoute(sourceAddress, destinationAddress);
+    if (mailRoute == null) {
       return false;
     }
-    PacketPipeline<Mail> packetPipeline =
-        nodeConnectionToPacketPipelineMap.get(new NodeConnection(source, destination));
-    if (packetPipeline == null) {
+    mailRoute.getPacketPipeline().enqueue(new Mail(destinationAddress, packet));
+    mailRoute.signal();
+    alarm.ring();
+    return true;
+  }
+
+  @Override
+  public boolean mailWithoutBlocking(
+      WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet) {
+    MailRoute mailRoute = findMailRoute(sourceAddress, destinationAddress);
+    if (mailRoute == null) {
       return false;
     }
-    packetPipeline.enqueue(new Mail(destinationAddress, packet));
+    mailRoute.getPacketPipeline().enqueueWithoutBlocking(new Mail(destinationAddress, packet));
+    mailRoute.signal();
+    alarm.ring();
     return true;
   }
+
+  private static class MailRoute {
+    private final Shard shard;
+    private final int index;
+    private final NodeConnection nodeConnection;
+    private final PacketPipeline<Mail> packetPipeline;
+    private final AtomicBoolean active = new AtomicBoolean(false);
+
+    private MailRoute(
+        Shard shard,
+        int index,
+        NodeConnection nodeConnection,
+        PacketPipeline<Mail> packetPipeline) {
+      this.shard = shard;
+      this.index = index;
+      this.nodeConnection = nodeConnection;
+      this.packetPipeline = packetPipeline;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public NodeConnection getNodeConnection() {
+      return nodeConnection;
+    }
+
+    public PacketPipeline<Mail> getPacketPipeline() {
+      return packetPipeline;
+    }
+
+    public boolean hasPendingWork() {
+      return packetPipeline.peekNextDequeueTimeNanos() != EpochNanos.NEVER;
+    }
+
+    public boolean tryActivate() {
+      return !active.get() && active.compareAndSet(false, true);
+    }
+
+    public void deactivate() {
+      active.set(false);
+    }
+
+    public void signal() {
+      if (tryActivate()) {
+        shard.signal(this);
+      }
+    }
+
+    public void tick(long nowNanos, int maxPacketsPerTick) {
+      packetPipeline.tick(nowNanos, maxPacketsPerTick);
+      for (int i = 0; i < maxPacketsPerTick; i++) {
+        Optional<Mail> mail = packetPipeline.tryDequeue();
+        if (!mail.isPresent()) {
+          break;
+        }
+        nodeConnection.getDestination().deliver(mail.get());
+      }
+    }
+  }
+
+  // Only routes with packets or events in flight are ticked. Idle routes are woken up by mail().
+  private static class Shard {
+    private final List<MailRoute> mailRoutes = new ArrayList<>();
+    private final BitSet activeMailRoutes = new BitSet();
+    private final Queue<MailRoute> signalledMailRoutes = new ConcurrentLinkedQueue<>();
+
+    private void addMailRoute(NodeConnection nodeConnection, PacketPipeline<Mail> packetPipeline) {
+      MailRoute mailRoute = new MailRoute(this, mailRoutes.size(), nodeConnection, packetPipeline);
+      mailRoutes.add(mailRoute);
+      if (mailRoute.hasPendingWork() && mailRoute.tryActivate()) {
+        activeMailRoutes.set(mailRoute.getIndex());
+      }
+    }
+
+    private List<MailRoute> getMailRoutes() {
+      return mailRoutes;
+    }
+
+    private void signal(MailRoute mailRoute) {
+      signalledMailRoutes.offer(mailRoute);
+    }
+
+    private boolean isActive() {
+      return !activeMailRoutes.isEmpty() || !signalledMailRoutes.isEmpty();
+    }
+
+    private long peekNextDeliveryTimeNanos() {
+      if (!signalledMailRoutes.isEmpty()) {
+        return EpochNanos.IMMEDIATELY;
+      }
+      long nextDeliveryTimeNanos = EpochNanos.NEVER;
+      for (int i = activeMailRoutes.nextSetBit(0); i >= 0; i = activeMailRoutes.nextSetBit(i + 1)) {
+        nextDeliveryTimeNanos =
+            Math.min(
+                nextDeliveryTimeNanos,
+                mailRoutes.get(i).getPacketPipeline().peekNextDequeueTimeNanos());
+      }
+      return nextDeliveryTimeNanos;
+    }
+
+    private void tick(long nowNanos, int maxPacketsPerTick) {
+      for (MailRoute mailRoute = signalledMailRoutes.poll();
+          mailRoute != null;
+          mailRoute = signalledMailRoutes.poll()) {
+        // Bring the filters of a previously idle route up to date before any packets reach them.
+        mailRoute.getPacketPipeline().tick(nowNanos, 0);
+        activeMailRoutes.set(mailRoute.getIndex());
+      }
+      for (int i = activeMailRoutes.nextSetBit(0); i >= 0; i = activeMailRoutes.nextSetBit(i + 1)) {
+        MailRoute mailRoute = mailRoutes.get(i);
+        mailRoute.tick(nowNanos, maxPacketsPerTick);
+        if (!mailRoute.hasPendingWork()) {
+          activeMailRoutes.clear(i);
+          mailRoute.deactivate();
+          // Mail may have arrived after the check above but before the route was deactivated.
+          if (mailRoute.hasPendingWork() && mailRoute.tryActivate()) {
+            activeMailRoutes.set(i);
+          }
+        }
+      }
+    }
+  }
 }
@@ -6,4 +6,14 @@ import thorpe.luke.network.simulation.worker.WorkerAddress;
 public interface PostalService {
 
   boolean mail(WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet);
+
+  // Never waits for room in a connection, even if its ingress overflow policy says to block.
+  default boolean mailWithoutBlocking(
+      WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet) {
+    return mail(sourceAddress, destinationAddress, packet);
+  }
+
+  default ActivityCounter getActivityCounter() {
+    return ActivityCounter.DISABLED;
+  }
 }
@@ -1,9 +1,11 @@
 package thorpe.luke.network.simulation.node;
 
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 import thorpe.luke.network.simulation.mail.Mail;
 import thorpe.luke.network.simulation.mail.PostalService;
 import thorpe.luke.network.simulation.worker.*;
+import thorpe.luke.util.ExecutionModel;
 
 public class Node {
   private final NodeAddress address;
@@ -20,22 +22,49 @@ public class Node {
     this.workerAddressBook = new WorkerAddressBook();
   }
 
-  public void doWork(
+  public Worker registerRootWorker(
       WorkerScript workerScript,
       NodeTopology nodeTopology,
       Path crashDumpLocation,
-      PostalService postalService) {
+      PostalService postalService,
+      ExecutionModel executionModel) {
     WorkerAddress workerAddress = address.asRootWorkerAddress();
-    Worker worker =
-        workerAddressBook.registerWorker(
+    return workerAddressBook.registerWorker(
+        workerScript,
+        workerAddress,
+        nodeTopology,
+        crashDumpLocation,
+        workerAddressGenerator,
+        workerAddressBook,
+        postalService,
+        executionModel);
+  }
+
+  public void doWork(
+      WorkerScript workerScript,
+      NodeTopology nodeTopology,
+      Path crashDumpLocation,
+      PostalService postalService,
+      ExecutionModel executionModel) {
+    registerRootWorker(workerScript, nodeTopology, crashDumpLocation, postalService, executionModel)
+        .run();
+  }
+
+  public CompletableFuture<Void> startAsyncWork(
+      AsyncWorkerScript workerScript,
+      NodeTopology nodeTopology,
+      PostalService postalService,
+      AsyncWorkerScheduler scheduler) {
+    AsyncWorker worker =
+        workerAddressBook.registerAsyncWorker(
             workerScript,
-            workerAddress,
+            address.asRootWorkerAddress(),
             nodeTopology,
-            crashDumpLocation,
             workerAddressGenerator,
-            workerAddressBook,
-            postalService);
-    worker.run();
+            postalService,
+            scheduler);
+    worker.start();
+    return worker.getCompletion();
   }
 
   public NodeAddress getAddress() {
@@ -12,15 +12,19 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import thorpe.luke.distribution.EmpiricalDistribution;
+import thorpe.luke.distribution.EmpiricalDistributionException;
 import thorpe.luke.log.BufferedFileLogger;
 import thorpe.luke.log.ConsoleLogger;
 import thorpe.luke.log.Logger;
+import thorpe.luke.network.packet.IngressOverflowPolicy;
 import thorpe.luke.network.packet.NetworkCondition;
 import thorpe.luke.network.packet.NetworkEvent;
 import thorpe.luke.network.packet.PacketPipeline;
 import thorpe.luke.network.simulation.*;
 import thorpe.luke.network.simulation.worker.WorkerProcessConfiguration;
 import thorpe.luke.network.simulation.worker.WorkerScript;
+import thorpe.luke.util.SplittableRandomAdaptor;
 import thorpe.luke.util.UniqueStringGenerator;
 
 public class PacketCourierSimulationConfigurationProtoParser {
@@ -32,6 +36,7 @@ public class PacketCourierSimulationConfigurationProtoParser {
   private final Map<String, WorkerScript> nodeNameToWorkerScriptWorkList;
   private final Random random;
   private final UniqueStringGenerator uniqueStringGenerator = new UniqueStringGenerator();
+  private final Map<Path, EmpiricalDistribution> pathToEmpiricalDistributionMap = new HashMap<>();
 
   private PacketCourierSimulationConfigurationProtoParser(
       PacketCourierSimulation.Configuration configuration,
@@ -55,8 +60,11 @@ public class PacketCourierSimulationConfigurationProtoParser {
       throw new PacketCourierSimulationConfigurationProtoParserException(e);
     }
     PacketCourierSimulation.Configuration configuration = PacketCourierSimulation.configuration();
+    // Every filter splits its own generator off this one, so draws never contend with each other.
     Random random =
-        configurationProto.hasSeed() ? new Random(configurationProto.getSeed()) : new Random();
+        configurationProto.hasSeed()
+            ? new SplittableRandomAdaptor(configurationProto.getSeed())
+            : new SplittableRandomAdaptor();
     PacketCourierSimulationConfigurationProtoParser parser =
         new PacketCourierSimulationConfigurationProtoParser(
             configuration, new HashMap<>(nodeNameToWorkerScriptMap), random);
@@ -82,6 +90,23 @@ public class PacketCourierSimulationConfigurationProtoParser {
     if (configurationProto.getWallClockEnabled()) {
       configuration.usingWallClock();
     }
+    if (configurationProto.getEventDrivenClockEnabled()) {
+      configuration.usingEventDrivenClock();
+    }
+    if (configurationProto.getVirtualThreadsEnabled()) {
+      configuration.usingVirtualThreads();
+    }
+    if (configurationProto.hasTickParallelism()) {
+      configuration.withTickParallelism(configurationProto.getTickParallelism());
+    }
+    if (configurationProto.hasMaxPacketsPerTick()) {
+      configuration.withMaxPacketsPerTick(configurationProto.getMaxPacketsPerTick());
+    }
+    if (configurationProto.hasIngress()) {
+      IngressProto ingressProto = configurationProto.getIngress();
+      configuration.withIngressCapacity(
+          ingressProto.getCapacity(), parseIngressOverflowPolicy(ingressProto.getOverflowPolicy()));
+    }
     if (configurationProto.getProcessLoggingEnabled()) {
       configuration.withProcessLoggingEnabled();
     }
@@ -377,6 +402,18 @@ public class PacketCourierSimulationConfigurationProtoParser {
         "Logger Proto is missing parameters.");
   }
 
+  private static IngressOverflowPolicy parseIngressOverflowPolicy(
+      IngressOverflowPolicyProto ingressOverflowPolicyProto) {
+    switch (ingressOverflowPolicyProto) {
+      case DROP_TAIL:
+        return IngressOverflowPolicy.DROP_TAIL;
+      case BLOCK:
+        return IngressOverflowPolicy.BLOCK;
+    }
+    throw new PacketCourierSimulationConfigurationProtoParserException(
+        "Ingress Overflow Policy Proto not recognized.");
+  }
+
   private static ConsoleLogger parseConsoleLogger(ConsoleLoggerProto consoleLoggerProto) {
     switch (consoleLoggerProto) {
       case STDOUT:
@@ -433,8 +470,12 @@ public class PacketCourierSimulationConfigurationProtoParser {
 
   private NetworkCondition parsePacketLimitParameters(
       PacketLimitParametersProto packetLimitParametersProto) {
+    int packetLimitRate = packetLimitParametersProto.getPacketLimitRate();
     return NetworkCondition.packetLimit(
-        packetLimitParametersProto.getPacketLimitRate(),
+        packetLimitRate,
+        packetLimitParametersProto.hasPacketBurstSize()
+            ? packetLimitParametersProto.getPacketBurstSize()
+            : packetLimitRate,
         parseTimeUnit(packetLimitParametersProto.getTimeUnit()));
   }
 
@@ -489,11 +530,27 @@ public class PacketCourierSimulationConfigurationProtoParser {
             uniformRealDistributionParametersProto.getMaximum(),
             timeUnit,
             random);
+      case EMPIRICAL:
+        return NetworkCondition.empiricalPacketLatency(
+            parseEmpiricalDistribution(packetLatencyParametersProto.getEmpirical()),
+            timeUnit,
+            random);
     }
     throw new PacketCourierSimulationConfigurationProtoParserException(
         "Packet Latency Proto is missing distribution.");
   }
 
+  private EmpiricalDistribution parseEmpiricalDistribution(
+      EmpiricalDistributionParametersProto empiricalDistributionParametersProto) {
+    // Connections that replay the same trace share a single mapping of it.
+    Path path = Paths.get(empiricalDistributionParametersProto.getPath()).toAbsolutePath();
+    try {
+      return pathToEmpiricalDistributionMap.computeIfAbsent(path, EmpiricalDistribution::fromFile);
+    } catch (EmpiricalDistributionException e) {
+      throw new PacketCourierSimulationConfigurationProtoParserException(e);
+    }
+  }
+
   private NetworkCondition parseEventPipelineParameters(
       EventPipelineParametersProto eventPipelineParametersProto) {
     ChronoUnit timeUnit = parseTimeUnit(eventPipelineParametersProto.getTimeUnit());
@@ -0,0 +1,207 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.simulation.mail.ActivityCounter;
+import thorpe.luke.network.simulation.mail.PostalService;
+import thorpe.luke.network.simulation.node.NodeTopology;
+
+public class AsyncWorker implements WorkerHandle {
+
+  private final AsyncWorkerScript workerScript;
+  private final WorkerAddress address;
+  private final NodeTopology nodeTopology;
+  private final WorkerAddressGenerator workerAddressGenerator;
+  private final WorkerAddressBook workerAddressBook;
+  private final PostalService postalService;
+  private final AsyncWorkerScheduler scheduler;
+  private final CompletableFuture<Void> completion;
+
+  // Handlers run one at a time on the shared scheduler, in the order in which they were dispatched.
+  private final Queue<Runnable> dispatchedTasks;
+  private final AtomicBoolean dispatching;
+  // Each dispatched task counts as activity until it has run.
+  private final ActivityCounter activityCounter;
+
+  // Only touched by dispatched tasks, which never run concurrently.
+  private final Deque<Packet> unreadMail;
+  private final Deque<CompletableFuture<Packet>> pendingReceipts;
+  private Consumer<Packet> mailHandler;
+
+  public AsyncWorker(
+      AsyncWorkerScript workerScript,
+      WorkerAddress address,
+      NodeTopology nodeTopology,
+      WorkerAddressGenerator workerAddressGenerator,
+      WorkerAddressBook workerAddressBook,
+      PostalService postalService,
+      AsyncWorkerScheduler scheduler) {
+    this.workerScript = workerScript;
+    this.address = address;
+    this.nodeTopology = nodeTopology;
+    this.workerAddressGenerator = workerAddressGenerator;
+    this.workerAddressBook = workerAddressBook;
+    this.postalService = postalService;
+    this.scheduler = scheduler;
+    this.completion = new CompletableFuture<>();
+    this.dispatchedTasks = new ConcurrentLinkedQueue<>();
+    this.dispatching = new AtomicBoolean(false);
+    this.activityCounter = postalService.getActivityCounter();
+    this.unreadMail = new ArrayDeque<>();
+    this.pendingReceipts = new ArrayDeque<>();
+    this.mailHandler = null;
+  }
+
+  public void start() {
+    AsyncWorkerManager workerManager = new AsyncWorkerManager(this);
+    dispatch(() -> workerScript.start(workerManager));
+  }
+
+  public CompletableFuture<Void> getCompletion() {
+    return completion;
+  }
+
+  @Override
+  public WorkerAddress getAddress() {
+    return address;
+  }
+
+  NodeTopology getTopology() {
+    return nodeTopology;
+  }
+
+  @Override
+  public void post(Packet packet) {
+    dispatch(() -> deliver(packet));
+  }
+
+  @Override
+  public boolean isDead() {
+    return completion.isDone();
+  }
+
+  private void dispatch(Runnable task) {
+    activityCounter.increment();
+    dispatchedTasks.offer(task);
+    if (dispatching.compareAndSet(false, true)) {
+      scheduler.execute(this::runDispatchedTasks);
+    }
+  }
+
+  private void runDispatchedTasks() {
+    boolean resubmitted = false;
+    try {
+      // Each turn handles a bounded batch, so that a flooded worker cannot starve the others.
+      for (int i = 0; i < scheduler.getMaxBatchSize(); i++) {
+        Runnable task = dispatchedTasks.poll();
+        if (task == null) {
+          break;
+        }
+        runDispatchedTask(task);
+      }
+      if (!dispatchedTasks.isEmpty()) {
+        scheduler.execute(this::runDispatchedTasks);
+        resubmitted = true;
+      }
+    } finally {
+      // Otherwise, nothing would ever be dispatched again if this turn were cut short.
+      if (!resubmitted) {
+        dispatching.set(false);
+      }
+    }
+    if (resubmitted) {
+      return;
+    }
+    // A task may have been dispatched after the queue was found empty, but before the flag was
+    // cleared, in which case nobody else is going to run it.
+    if (!dispatchedTasks.isEmpty() && dispatching.compareAndSet(false, true)) {
+      scheduler.execute(this::runDispatchedTasks);
+    }
+  }
+
+  private void runDispatchedTask(Runnable task) {
+    try {
+      if (completion.isDone()) {
+        // Nobody is going to handle the mail that a finished worker was waiting on.
+        pendingReceipts.forEach(receipt -> receipt.cancel(false));
+        pendingReceipts.clear();
+        return;
+      }
+      task.run();
+    } catch (Throwable e) {
+      completion.completeExceptionally(e);
+    } finally {
+      activityCounter.decrement();
+    }
+  }
+
+  private void deliver(Packet packet) {
+    CompletableFuture<Packet> pendingReceipt = pendingReceipts.poll();
+    if (pendingReceipt != null) {
+      pendingReceipt.complete(packet);
+    } else if (mailHandler != null) {
+      mailHandler.accept(packet);
+    } else {
+      unreadMail.offer(packet);
+    }
+  }
+
+  void sendMail(WorkerAddress destinationAddress, Packet packet) {
+    postalService.mail(address, destinationAddress, packet);
+  }
+
+  void onMail(Consumer<Packet> mailHandler) {
+    dispatch(
+        () -> {
+          this.mailHandler = mailHandler;
+          while (mailHandler != null && !unreadMail.isEmpty() && pendingReceipts.isEmpty()) {
+            mailHandler.accept(unreadMail.poll());
+          }
+        });
+  }
+
+  CompletableFuture<Packet> receiveMail() {
+    CompletableFuture<Packet> receipt = new CompletableFuture<>();
+    dispatch(
+        () -> {
+          Packet packet = unreadMail.poll();
+          if (packet != null) {
+            receipt.complete(packet);
+          } else {
+            pendingReceipts.offer(receipt);
+          }
+        });
+    return receipt;
+  }
+
+  Future<?> onTimer(long delay, TimeUnit unit, Runnable timerHandler) {
+    return scheduler.schedule(() -> dispatch(timerHandler), delay, unit);
+  }
+
+  AsyncWorker spawnChildWorker(AsyncWorkerScript workerScript) {
+    AsyncWorker childWorker =
+        workerAddressBook.registerAsyncWorker(
+            workerScript,
+            workerAddressGenerator.generateUniqueChildWorkerAddress(address),
+            nodeTopology,
+            workerAddressGenerator,
+            postalService,
+            scheduler);
+    childWorker.start();
+    return childWorker;
+  }
+
+  void finish() {
+    completion.complete(null);
+    // Wakes up the dispatcher, so that any pending receipts get cancelled.
+    dispatch(() -> {});
+  }
+}
@@ -0,0 +1,49 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.simulation.node.NodeTopology;
+
+public class AsyncWorkerManager {
+
+  private final AsyncWorker worker;
+
+  AsyncWorkerManager(AsyncWorker worker) {
+    this.worker = worker;
+  }
+
+  public WorkerAddress getAddress() {
+    return worker.getAddress();
+  }
+
+  public NodeTopology getTopology() {
+    return worker.getTopology();
+  }
+
+  public void sendMail(WorkerAddress destinationAddress, Packet packet) {
+    worker.sendMail(destinationAddress, packet);
+  }
+
+  public void onMail(Consumer<Packet> mailHandler) {
+    worker.onMail(mailHandler);
+  }
+
+  public CompletableFuture<Packet> receiveMail() {
+    return worker.receiveMail();
+  }
+
+  public Future<?> onTimer(long delay, TimeUnit unit, Runnable timerHandler) {
+    return worker.onTimer(delay, unit, timerHandler);
+  }
+
+  public AsyncWorker spawnChildWorker(AsyncWorkerScript workerScript) {
+    return worker.spawnChildWorker(workerScript);
+  }
+
+  public void finish() {
+    worker.finish();
+  }
+}
@@ -0,0 +1,91 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import thorpe.luke.util.ThreadNameGenerator;
+
+public class AsyncWorkerScheduler {
+
+  private final Executor executor;
+  private final AsyncWorkerTimer timer;
+  private final int maxBatchSize;
+
+  public AsyncWorkerScheduler(int parallelism, int maxBatchSize) {
+    this(
+        parallelism,
+        maxBatchSize,
+        new WallClockTimer(
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  Thread thread =
+                      new Thread(
+                          runnable, ThreadNameGenerator.generateThreadName("Async Worker Timer"));
+                  thread.setDaemon(true);
+                  return thread;
+                })));
+  }
+
+  public AsyncWorkerScheduler(int parallelism, int maxBatchSize, SimulatedTimer timer) {
+    this(parallelism, maxBatchSize, (AsyncWorkerTimer) timer);
+  }
+
+  private AsyncWorkerScheduler(int parallelism, int maxBatchSize, AsyncWorkerTimer timer) {
+    // Workers are scheduled in FIFO order, so that a worker which has used up its batch queues up
+    // behind the others rather than jumping straight back onto the thread it just left.
+    this(
+        new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true),
+        timer,
+        maxBatchSize);
+  }
+
+  AsyncWorkerScheduler(Executor executor, AsyncWorkerTimer timer, int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Max batch size must be positive.");
+    }
+    this.executor = executor;
+    this.timer = timer;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  void execute(Runnable task) {
+    executor.execute(task);
+  }
+
+  Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+    return timer.schedule(task, delay, unit);
+  }
+
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void shutdown() {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+    timer.shutdown();
+  }
+
+  private static class WallClockTimer implements AsyncWorkerTimer {
+    private final ScheduledExecutorService scheduledExecutor;
+
+    private WallClockTimer(ScheduledExecutorService scheduledExecutor) {
+      this.scheduledExecutor = scheduledExecutor;
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+      return scheduledExecutor.schedule(task, delay, unit);
+    }
+
+    @Override
+    public void shutdown() {
+      scheduledExecutor.shutdownNow();
+    }
+  }
+}
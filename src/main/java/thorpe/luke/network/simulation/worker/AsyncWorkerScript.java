@@ -0,0 +1,6 @@
+package thorpe.luke.network.simulation.worker;
+
+@FunctionalInterface
+public interface AsyncWorkerScript {
+  void start(AsyncWorkerManager workerManager);
+}
@@ -0,0 +1,10 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+interface AsyncWorkerTimer {
+  Future<?> schedule(Runnable task, long delay, TimeUnit unit);
+
+  void shutdown();
+}
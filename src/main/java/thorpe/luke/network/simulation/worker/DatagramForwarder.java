@@ -0,0 +1,97 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.util.ByteUtils;
+
+public class DatagramForwarder {
+
+  // The unspecified address is never handed out as a private ip address, so it marks empty slots.
+  private static final int EMPTY_SLOT = 0;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] privateIpv4Addresses;
+  private DatagramChannel[] publicChannels;
+  private int size;
+  private final AtomicLong droppedDatagramCount;
+
+  public DatagramForwarder() {
+    this.privateIpv4Addresses = new int[INITIAL_CAPACITY];
+    this.publicChannels = new DatagramChannel[INITIAL_CAPACITY];
+    this.size = 0;
+    this.droppedDatagramCount = new AtomicLong(0);
+  }
+
+  private static int slotOf(int ipv4Address, int mask) {
+    int hash = ipv4Address * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  // Registration happens while the simulation is being configured, before any packet is forwarded.
+  public void register(InetAddress privateIpAddress, DatagramChannel publicChannel) {
+    if (2 * (size + 1) > publicChannels.length) {
+      resize();
+    }
+    if (insert(ByteUtils.toInt(privateIpAddress.getAddress()), publicChannel)) {
+      size++;
+    }
+  }
+
+  private boolean insert(int ipv4Address, DatagramChannel publicChannel) {
+    int mask = publicChannels.length - 1;
+    int slot = slotOf(ipv4Address, mask);
+    while (privateIpv4Addresses[slot] != EMPTY_SLOT) {
+      if (privateIpv4Addresses[slot] == ipv4Address) {
+        publicChannels[slot] = publicChannel;
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    privateIpv4Addresses[slot] = ipv4Address;
+    publicChannels[slot] = publicChannel;
+    return true;
+  }
+
+  private void resize() {
+    int[] oldPrivateIpv4Addresses = privateIpv4Addresses;
+    DatagramChannel[] oldPublicChannels = publicChannels;
+    privateIpv4Addresses = new int[oldPublicChannels.length * 2];
+    publicChannels = new DatagramChannel[oldPublicChannels.length * 2];
+    for (int i = 0; i < oldPublicChannels.length; i++) {
+      if (oldPrivateIpv4Addresses[i] != EMPTY_SLOT) {
+        insert(oldPrivateIpv4Addresses[i], oldPublicChannels[i]);
+      }
+    }
+  }
+
+  private DatagramChannel lookup(int ipv4Address) {
+    int mask = publicChannels.length - 1;
+    int slot = slotOf(ipv4Address, mask);
+    while (privateIpv4Addresses[slot] != EMPTY_SLOT) {
+      if (privateIpv4Addresses[slot] == ipv4Address) {
+        return publicChannels[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public void forward(Packet packet, InetSocketAddress privateSocketAddress) throws IOException {
+    DatagramChannel publicChannel = lookup(packet.getSourceIpv4Address());
+    if (publicChannel == null) {
+      return;
+    }
+    if (publicChannel.send(packet.asReadOnlyBuffer(), privateSocketAddress) == 0) {
+      // The channel is non-blocking, so a full send buffer means that the datagram was not sent.
+      droppedDatagramCount.incrementAndGet();
+    }
+  }
+
+  public long getDroppedDatagramCount() {
+    return droppedDatagramCount.get();
+  }
+}
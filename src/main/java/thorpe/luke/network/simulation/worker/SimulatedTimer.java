@@ -0,0 +1,92 @@
+package thorpe.luke.network.simulation.worker;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import thorpe.luke.time.EpochNanos;
+import thorpe.luke.time.Tickable;
+
+// Fires timers in simulated time, as the simulation ticks, rather than against the wall clock.
+public class SimulatedTimer implements AsyncWorkerTimer, Tickable {
+
+  private final Queue<ScheduledTask> scheduledTasks;
+  private long nowNanos;
+  private long nextSequenceNumber;
+
+  public SimulatedTimer(long startTimeNanos) {
+    this.scheduledTasks = new PriorityQueue<>();
+    this.nowNanos = startTimeNanos;
+    this.nextSequenceNumber = 0;
+  }
+
+  @Override
+  public synchronized Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+    FutureTask<Void> futureTask = new FutureTask<>(task, null);
+    scheduledTasks.offer(
+        new ScheduledTask(
+            EpochNanos.plus(nowNanos, unit.toNanos(delay)), nextSequenceNumber++, futureTask));
+    return futureTask;
+  }
+
+  @Override
+  public void tick(long nowNanos) {
+    // Tasks are run outside of the lock, so that they are free to schedule more tasks.
+    for (FutureTask<Void> task = pollDueTask(nowNanos);
+        task != null;
+        task = pollDueTask(nowNanos)) {
+      task.run();
+    }
+  }
+
+  private synchronized FutureTask<Void> pollDueTask(long nowNanos) {
+    this.nowNanos = nowNanos;
+    ScheduledTask scheduledTask = scheduledTasks.peek();
+    if (scheduledTask == null || scheduledTask.getScheduledTimeNanos() > nowNanos) {
+      return null;
+    }
+    return scheduledTasks.poll().getTask();
+  }
+
+  public synchronized long peekNextTimeNanos() {
+    // Cancelled tasks are discarded here, so that the clock does not stop for them.
+    while (!scheduledTasks.isEmpty() && scheduledTasks.peek().getTask().isCancelled()) {
+      scheduledTasks.poll();
+    }
+    ScheduledTask scheduledTask = scheduledTasks.peek();
+    return scheduledTask == null ? EpochNanos.NEVER : scheduledTask.getScheduledTimeNanos();
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    scheduledTasks.clear();
+  }
+
+  private static class ScheduledTask implements Comparable<ScheduledTask> {
+    private final long scheduledTimeNanos;
+    private final long sequenceNumber;
+    private final FutureTask<Void> task;
+
+    private ScheduledTask(long scheduledTimeNanos, long sequenceNumber, FutureTask<Void> task) {
+      this.scheduledTimeNanos = scheduledTimeNanos;
+      this.sequenceNumber = sequenceNumber;
+      this.task = task;
+    }
+
+    public long getScheduledTimeNanos() {
+      return scheduledTimeNanos;
+    }
+
+    public FutureTask<Void> getTask() {
+      return task;
+    }
+
+    // Timers that are due at the same time fire in the order in which they were scheduled.
+    @Override
+    public int compareTo(ScheduledTask that) {
+      int comparison = Long.compare(this.scheduledTimeNanos, that.scheduledTimeNanos);
+      return comparison != 0 ? comparison : Long.compare(this.sequenceNumber, that.sequenceNumber);
+    }
+  }
+}
@@ -2,16 +2,23 @@ package thorpe.luke.network.simulation.worker;
 
 import java.nio.file.Path;
 import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.simulation.mail.ActivityCounter;
 import thorpe.luke.network.simulation.mail.Mailbox;
 import thorpe.luke.network.simulation.mail.PostalService;
 import thorpe.luke.network.simulation.node.NodeTopology;
+import thorpe.luke.util.ExecutionModel;
 import thorpe.luke.util.ThreadNameGenerator;
 
-public class Worker {
+public class Worker implements WorkerHandle {
 
   private final Thread workerThread;
   private final WorkerAddress address;
   private final Mailbox mailbox;
+  // A worker is busy from the moment it is created until its script returns, apart from whenever
+  // it is waiting on its mailbox or on another worker.
+  private final ActivityCounter activityCounter;
+  private int joiningWorkerCount;
+  private boolean finished;
   private State state;
 
   public Worker(
@@ -22,10 +29,14 @@ public class Worker {
       WorkerAddressGenerator workerAddressGenerator,
       WorkerAddressBook workerAddressBook,
       Mailbox mailbox,
-      PostalService postalService) {
+      PostalService postalService,
+      ExecutionModel executionModel) {
+    this.activityCounter = postalService.getActivityCounter();
+    this.activityCounter.increment();
     this.workerThread =
-        new Thread(
-            () ->
+        executionModel.newThread(
+            () -> {
+              try {
                 workerScript.run(
                     new WorkerManager(
                         address,
@@ -34,13 +45,31 @@ public class Worker {
                         postalService,
                         crashDumpLocation,
                         workerAddressGenerator,
-                        workerAddressBook)),
+                        workerAddressBook,
+                        executionModel));
+              } finally {
+                finish();
+              }
+            },
             ThreadNameGenerator.generateThreadName(address.getName()));
     this.address = address;
     this.mailbox = mailbox;
+    this.joiningWorkerCount = 0;
+    this.finished = false;
     this.state = State.READY;
   }
 
+  private void finish() {
+    // Workers waiting to join this one are busy again before this one stops being busy.
+    synchronized (this) {
+      finished = true;
+      activityCounter.increment(joiningWorkerCount);
+      joiningWorkerCount = 0;
+    }
+    activityCounter.decrement();
+  }
+
+  @Override
   public WorkerAddress getAddress() {
     return address;
   }
@@ -71,10 +100,22 @@ public class Worker {
   }
 
   public void join() {
+    synchronized (this) {
+      if (!finished) {
+        joiningWorkerCount++;
+        activityCounter.decrement();
+      }
+    }
     try {
       workerThread.join();
       updateState(State.RUNNING, State.DEAD);
     } catch (InterruptedException e) {
+      synchronized (this) {
+        if (!finished) {
+          joiningWorkerCount--;
+          activityCounter.increment();
+        }
+      }
       throw new WorkerException(e);
     }
   }
@@ -87,6 +128,12 @@ public class Worker {
     return state;
   }
 
+  @Override
+  public boolean isDead() {
+    return state == State.DEAD;
+  }
+
+  @Override
   public void post(Packet packet) {
     mailbox.post(packet);
   }
@@ -7,6 +7,7 @@ import java.util.concurrent.ConcurrentMap;
 import thorpe.luke.network.simulation.mail.Mailbox;
 import thorpe.luke.network.simulation.mail.PostalService;
 import thorpe.luke.network.simulation.node.NodeTopology;
+import thorpe.luke.util.ExecutionModel;
 import thorpe.luke.util.GarbageCollector;
 import thorpe.luke.util.Prunable;
 
@@ -14,7 +15,7 @@ public class WorkerAddressBook implements Prunable {
 
   private static final int PRUNE_PERIOD = 10;
 
-  private final ConcurrentMap<WorkerAddress, Worker> addressToWorkerMap;
+  private final ConcurrentMap<WorkerAddress, WorkerHandle> addressToWorkerMap;
   private final GarbageCollector garbageCollector;
 
   public WorkerAddressBook() {
@@ -22,7 +23,7 @@ public class WorkerAddressBook implements Prunable {
     this.garbageCollector = new GarbageCollector(this, PRUNE_PERIOD);
   }
 
-  public Optional<Worker> lookup(WorkerAddress address) {
+  public Optional<WorkerHandle> lookup(WorkerAddress address) {
     garbageCollector.tick();
     return Optional.ofNullable(addressToWorkerMap.get(address));
   }
@@ -34,7 +35,8 @@ public class WorkerAddressBook implements Prunable {
       Path crashDumpLocation,
       WorkerAddressGenerator workerAddressGenerator,
       WorkerAddressBook workerAddressBook,
-      PostalService postalService) {
+      PostalService postalService,
+      ExecutionModel executionModel) {
     Worker worker =
         new Worker(
             workerScript,
@@ -43,14 +45,35 @@ public class WorkerAddressBook implements Prunable {
             crashDumpLocation,
             workerAddressGenerator,
             workerAddressBook,
-            new Mailbox(),
-            postalService);
+            new Mailbox(postalService.getActivityCounter()),
+            postalService,
+            executionModel);
+    addressToWorkerMap.put(workerAddress, worker);
+    return worker;
+  }
+
+  public AsyncWorker registerAsyncWorker(
+      AsyncWorkerScript workerScript,
+      WorkerAddress workerAddress,
+      NodeTopology nodeTopology,
+      WorkerAddressGenerator workerAddressGenerator,
+      PostalService postalService,
+      AsyncWorkerScheduler scheduler) {
+    AsyncWorker worker =
+        new AsyncWorker(
+            workerScript,
+            workerAddress,
+            nodeTopology,
+            workerAddressGenerator,
+            this,
+            postalService,
+            scheduler);
     addressToWorkerMap.put(workerAddress, worker);
     return worker;
   }
 
   @Override
   public void prune() {
-    addressToWorkerMap.values().removeIf(worker -> worker.getState() == Worker.State.DEAD);
+    addressToWorkerMap.values().removeIf(WorkerHandle::isDead);
   }
 }
@@ -1,14 +1,11 @@
 package thorpe.luke.network.simulation.worker;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.util.List;
-import java.util.Map;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
 import thorpe.luke.log.Logger;
 import thorpe.luke.network.packet.Packet;
-import thorpe.luke.util.ThreadNameGenerator;
 import thorpe.luke.util.error.ExceptionListener;
 
 public class WorkerDatagramForwardingScript implements WorkerScript {
@@ -16,8 +13,8 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
   private final WorkerProcess.Factory workerProcessFactory;
   private final int port;
   private final InetAddress privateIpAddress;
-  private final int datagramBufferSize;
-  private final Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap;
+  private final InetSocketAddress privateSocketAddress;
+  private final DatagramForwarder datagramForwarder;
   private final boolean processLoggingEnabled;
   private final WorkerProcessMonitor workerProcessMonitor;
   private final ExceptionListener exceptionListener;
@@ -27,8 +24,7 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
       WorkerProcess.Factory workerProcessFactory,
       int port,
       InetAddress privateIpAddress,
-      int datagramBufferSize,
-      Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap,
+      DatagramForwarder datagramForwarder,
       boolean processLoggingEnabled,
       WorkerProcessMonitor workerProcessMonitor,
       ExceptionListener exceptionListener,
@@ -36,8 +32,8 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
     this.workerProcessFactory = workerProcessFactory;
     this.port = port;
     this.privateIpAddress = privateIpAddress;
-    this.datagramBufferSize = datagramBufferSize;
-    this.privateIpAddressToPublicSocketMap = privateIpAddressToPublicSocketMap;
+    this.privateSocketAddress = new InetSocketAddress(privateIpAddress, port);
+    this.datagramForwarder = datagramForwarder;
     this.processLoggingEnabled = processLoggingEnabled;
     this.workerProcessMonitor = workerProcessMonitor;
     this.exceptionListener = exceptionListener;
@@ -48,47 +44,19 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
     return new Builder();
   }
 
-  private void waitForAndForwardPackets(WorkerManager workerManager) {
-    byte[] buffer = new byte[datagramBufferSize];
-    do {
-      Packet packet;
-      try {
-        packet = workerManager.waitForMail();
-      } catch (WorkerException e) {
-        exceptionListener.invoke(e);
-        return;
-      }
-      List<Byte> data = packet.getData();
-      for (int i = 0; i < buffer.length; i++) {
-        buffer[i] = data.get(i);
-      }
-      byte[] sourceIpAddress = new byte[data.size() - datagramBufferSize];
-      for (int i = 0; i < sourceIpAddress.length; i++) {
-        sourceIpAddress[i] = data.get(datagramBufferSize + i);
-      }
-      DatagramPacket forwardingDatagramPacket =
-          new DatagramPacket(buffer, buffer.length, privateIpAddress, port);
-      try {
-        DatagramSocket publicSocket =
-            privateIpAddressToPublicSocketMap.get(InetAddress.getByAddress(sourceIpAddress));
-        if (publicSocket != null) {
-          publicSocket.send(forwardingDatagramPacket);
-        }
-      } catch (IOException e) {
-        exceptionListener.invoke(e);
-        return;
-      }
-    } while (true);
+  private void forward(Packet packet) {
+    try {
+      datagramForwarder.forward(packet, privateSocketAddress);
+    } catch (ClosedChannelException e) {
+      // The simulation has shut down the datagram routing layer, so there is nowhere to forward to.
+    } catch (IOException e) {
+      exceptionListener.invoke(e);
+    }
   }
 
   @Override
   public void run(WorkerManager workerManager) {
-    Thread forwardingThread =
-        new Thread(
-            () -> waitForAndForwardPackets(workerManager),
-            ThreadNameGenerator.generateThreadName(
-                "Packet Forwarder at " + workerManager.getAddress().getName()));
-    forwardingThread.start();
+    workerManager.redirectMail(this::forward);
     try {
       String workerProcessName = workerManager.getAddress().getHostingNodeAddress().getName();
       WorkerProcess workerProcess;
@@ -98,14 +66,15 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
         workerProcess = workerProcessFactory.start();
       }
       workerProcessMonitor.addProcess(workerProcessName, workerProcess);
-      WorkerProcessExitStatus workerProcessExitStatus = workerProcess.waitFor();
-      forwardingThread.interrupt();
-      forwardingThread.join();
+      WorkerProcessExitStatus workerProcessExitStatus =
+          workerProcess.waitFor(workerManager.getExecutionModel());
       if (!workerProcessExitStatus.isSuccess()) {
         throw new WorkerException(String.join("\n", workerProcessExitStatus.getErrors()));
       }
     } catch (IOException | InterruptedException e) {
       throw new WorkerException(e);
+    } finally {
+      workerManager.redirectMail(null);
     }
   }
 
@@ -113,8 +82,7 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
     private WorkerProcess.Factory workerProcessFactory;
     private int port;
     private InetAddress privateIpAddress;
-    private int datagramBufferSize;
-    private Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap;
+    private DatagramForwarder datagramForwarder;
     private boolean processLoggingEnabled;
     private WorkerProcessMonitor workerProcessMonitor;
     private ExceptionListener exceptionListener;
@@ -137,14 +105,8 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
       return this;
     }
 
-    public Builder withDatagramBufferSize(int datagramBufferSize) {
-      this.datagramBufferSize = datagramBufferSize;
-      return this;
-    }
-
-    public Builder withPrivateIpAddressToPublicSocketMap(
-        Map<InetAddress, DatagramSocket> privateIpAddressToPublicSocketMap) {
-      this.privateIpAddressToPublicSocketMap = privateIpAddressToPublicSocketMap;
+    public Builder withDatagramForwarder(DatagramForwarder datagramForwarder) {
+      this.datagramForwarder = datagramForwarder;
       return this;
     }
 
@@ -173,8 +135,7 @@ public class WorkerDatagramForwardingScript implements WorkerScript {
           workerProcessFactory,
           port,
           privateIpAddress,
-          datagramBufferSize,
-          privateIpAddressToPublicSocketMap,
+          datagramForwarder,
           processLoggingEnabled,
           workerProcessMonitor,
           exceptionListener,
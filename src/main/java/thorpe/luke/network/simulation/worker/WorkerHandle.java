@@ -0,0 +1,11 @@
+package thorpe.luke.network.simulation.worker;
+
+import thorpe.luke.network.packet.Packet;
+
+public interface WorkerHandle {
+  WorkerAddress getAddress();
+
+  void post(Packet packet);
+
+  boolean isDead();
+}
@@ -1,10 +1,15 @@
 package thorpe.luke.network.simulation.worker;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import thorpe.luke.network.packet.Packet;
 import thorpe.luke.network.simulation.mail.Mailbox;
 import thorpe.luke.network.simulation.mail.PostalService;
 import thorpe.luke.network.simulation.node.NodeTopology;
+import thorpe.luke.util.ExecutionModel;
 
 public class WorkerManager {
 
@@ -15,6 +20,7 @@ public class WorkerManager {
   private final Path crashDumpLocation;
   private final WorkerAddressGenerator workerAddressGenerator;
   private final WorkerAddressBook workerAddressBook;
+  private final ExecutionModel executionModel;
 
   public WorkerManager(
       WorkerAddress address,
@@ -23,7 +29,8 @@ public class WorkerManager {
       PostalService postalService,
       Path crashDumpLocation,
       WorkerAddressGenerator workerAddressGenerator,
-      WorkerAddressBook workerAddressBook) {
+      WorkerAddressBook workerAddressBook,
+      ExecutionModel executionModel) {
     this.address = address;
     this.nodeTopology = nodeTopology;
     this.mailbox = mailbox;
@@ -31,6 +38,7 @@ public class WorkerManager {
     this.crashDumpLocation = crashDumpLocation;
     this.workerAddressGenerator = workerAddressGenerator;
     this.workerAddressBook = workerAddressBook;
+    this.executionModel = executionModel;
   }
 
   public WorkerAddress getAddress() {
@@ -41,6 +49,10 @@ public class WorkerManager {
     return nodeTopology;
   }
 
+  public ExecutionModel getExecutionModel() {
+    return executionModel;
+  }
+
   public void sendMail(WorkerAddress destinationAddress, Packet packet) {
     postalService.mail(this.address, destinationAddress, packet);
   }
@@ -53,6 +65,26 @@ public class WorkerManager {
     }
   }
 
+  public Optional<Packet> pollMail(long timeout, TimeUnit unit) {
+    try {
+      return mailbox.pollMail(timeout, unit);
+    } catch (InterruptedException e) {
+      throw new WorkerException(e);
+    }
+  }
+
+  public Optional<Packet> tryReceive() {
+    return mailbox.tryReceive();
+  }
+
+  public int drainMail(Collection<? super Packet> mail, int maxPackets) {
+    return mailbox.drainMail(mail, maxPackets);
+  }
+
+  public void redirectMail(Consumer<Packet> recipient) {
+    mailbox.redirectTo(recipient);
+  }
+
   public Worker spawnChildWorker(WorkerScript workerScript) {
     WorkerAddress childWorkerAddress =
         workerAddressGenerator.generateUniqueChildWorkerAddress(address);
@@ -63,6 +95,7 @@ public class WorkerManager {
         crashDumpLocation,
         workerAddressGenerator,
         workerAddressBook,
-        postalService);
+        postalService,
+        executionModel);
   }
 }
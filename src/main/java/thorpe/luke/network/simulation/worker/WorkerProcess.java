@@ -8,6 +8,7 @@ import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import thorpe.luke.log.Logger;
+import thorpe.luke.util.ExecutionModel;
 import thorpe.luke.util.ThreadNameGenerator;
 
 public class WorkerProcess {
@@ -55,9 +56,14 @@ public class WorkerProcess {
   }
 
   public WorkerProcessExitStatus waitFor() throws InterruptedException, IOException {
+    return waitFor(ExecutionModel.platformThreads());
+  }
+
+  public WorkerProcessExitStatus waitFor(ExecutionModel executionModel)
+      throws InterruptedException, IOException {
     // TODO(#174): replace this thread with a tick-based model
     Thread processLoggingThread =
-        new Thread(
+        executionModel.newThread(
             this::logProcessOutput, ThreadNameGenerator.generateThreadName(name + " Logger"));
     processLoggingThread.start();
 
@@ -0,0 +1,32 @@
+package thorpe.luke.time;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class Alarm {
+  private volatile boolean rung = false;
+  private volatile Thread sleepingThread = null;
+
+  public void ring() {
+    // Skip the unpark when the alarm is already ringing, since the sleeper is bound to notice.
+    if (!rung) {
+      rung = true;
+      Thread thread = sleepingThread;
+      if (thread != null) {
+        LockSupport.unpark(thread);
+      }
+    }
+  }
+
+  public void sleepFor(long timeoutNanos) {
+    sleepingThread = Thread.currentThread();
+    // Parking can return spuriously, so it is retried until the alarm rings or time is up.
+    long deadlineNanoTime = System.nanoTime() + timeoutNanos;
+    long remainingNanos = timeoutNanos;
+    while (!rung && remainingNanos > 0) {
+      LockSupport.parkNanos(this, remainingNanos);
+      remainingNanos = deadlineNanoTime - System.nanoTime();
+    }
+    sleepingThread = null;
+    rung = false;
+  }
+}
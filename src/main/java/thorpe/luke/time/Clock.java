@@ -4,5 +4,9 @@ import java.time.LocalDateTime;
 
 @FunctionalInterface
 public interface Clock {
-  LocalDateTime now();
+  long nowNanos();
+
+  default LocalDateTime now() {
+    return EpochNanos.toLocalDateTime(nowNanos());
+  }
 }
@@ -0,0 +1,69 @@
+package thorpe.luke.time;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+public final class EpochNanos {
+  public static final long NEVER = Long.MAX_VALUE;
+  public static final long IMMEDIATELY = Long.MIN_VALUE;
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private EpochNanos() {}
+
+  public static long of(LocalDateTime time) {
+    long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+    if (epochSecond >= Long.MAX_VALUE / NANOS_PER_SECOND) {
+      return NEVER;
+    } else if (epochSecond <= Long.MIN_VALUE / NANOS_PER_SECOND) {
+      return IMMEDIATELY;
+    }
+    return epochSecond * NANOS_PER_SECOND + time.getNano();
+  }
+
+  public static LocalDateTime toLocalDateTime(long epochNanos) {
+    if (epochNanos == NEVER) {
+      return LocalDateTime.MAX;
+    } else if (epochNanos == IMMEDIATELY) {
+      return LocalDateTime.MIN;
+    }
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+        (int) Math.floorMod(epochNanos, NANOS_PER_SECOND),
+        ZoneOffset.UTC);
+  }
+
+  public static long plus(long epochNanos, long nanos) {
+    long sum = epochNanos + nanos;
+    // Saturate rather than wrap around when either operand is already at the edge of time.
+    if (((epochNanos ^ sum) & (nanos ^ sum)) < 0) {
+      return nanos < 0 ? IMMEDIATELY : NEVER;
+    }
+    return sum;
+  }
+
+  public static long toNanos(ChronoUnit timeUnit) {
+    Duration duration = timeUnit.getDuration();
+    if (duration.getSeconds() >= Long.MAX_VALUE / NANOS_PER_SECOND) {
+      return NEVER;
+    }
+    return duration.toNanos();
+  }
+
+  public static long toNanos(double amount, ChronoUnit timeUnit) {
+    double nanos = amount * timeUnit.getDuration().getSeconds() * NANOS_PER_SECOND;
+    nanos += amount * timeUnit.getDuration().getNano();
+    // Math.round saturates to Long.MIN_VALUE and Long.MAX_VALUE for out-of-range values.
+    return Math.round(nanos);
+  }
+
+  public static long toNanos(long amount, ChronoUnit timeUnit) {
+    long unitNanos = toNanos(timeUnit);
+    if (amount != 0 && Math.abs(amount) > NEVER / unitNanos) {
+      return amount < 0 ? IMMEDIATELY : NEVER;
+    }
+    return amount * unitNanos;
+  }
+}
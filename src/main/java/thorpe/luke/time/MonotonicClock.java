@@ -0,0 +1,22 @@
+package thorpe.luke.time;
+
+import java.time.LocalDateTime;
+
+public class MonotonicClock implements Clock {
+  private final long startTimeNanos;
+  private final long startNanoTime;
+
+  public MonotonicClock(LocalDateTime startTime) {
+    this(EpochNanos.of(startTime));
+  }
+
+  public MonotonicClock(long startTimeNanos) {
+    this.startTimeNanos = startTimeNanos;
+    this.startNanoTime = System.nanoTime();
+  }
+
+  @Override
+  public long nowNanos() {
+    return startTimeNanos + (System.nanoTime() - startNanoTime);
+  }
+}
@@ -4,5 +4,9 @@ import java.time.LocalDateTime;
 
 @FunctionalInterface
 public interface Tickable {
-  void tick(LocalDateTime now);
+  void tick(long nowNanos);
+
+  default void tick(LocalDateTime now) {
+    tick(EpochNanos.of(now));
+  }
 }
@@ -1,21 +1,28 @@
 package thorpe.luke.time;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 public class TickableClock implements Tickable, Clock {
-  private LocalDateTime now;
+  public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private long nowNanos;
 
   public TickableClock(LocalDateTime now) {
-    this.now = now;
+    this(EpochNanos.of(now));
+  }
+
+  public TickableClock(long nowNanos) {
+    this.nowNanos = nowNanos;
   }
 
   @Override
-  public void tick(LocalDateTime now) {
-    this.now = now;
+  public void tick(long nowNanos) {
+    this.nowNanos = nowNanos;
   }
 
   @Override
-  public LocalDateTime now() {
-    return now;
+  public long nowNanos() {
+    return nowNanos;
   }
 }
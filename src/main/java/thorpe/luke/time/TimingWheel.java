@@ -0,0 +1,218 @@
+package thorpe.luke.time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class TimingWheel<T> {
+  private static final int SLOT_BITS = 8;
+  private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+  private static final int LEVELS = 4;
+  private static final int HORIZON_BITS = SLOT_BITS * LEVELS;
+  private static final int OCCUPANCY_WORDS_PER_LEVEL = SLOTS_PER_LEVEL / Long.SIZE;
+
+  private final long tickNanos;
+  private final List<List<Entry<T>>> slots;
+  private final long[] slotOccupancy = new long[LEVELS * OCCUPANCY_WORDS_PER_LEVEL];
+  private final PriorityQueue<Entry<T>> dueEntries = new PriorityQueue<>();
+  private final PriorityQueue<Entry<T>> overflowEntries = new PriorityQueue<>();
+  private long currentTick;
+  private long nextSequenceNumber = 0;
+  private int slottedEntryCount = 0;
+  private long nextDeadlineNanos = EpochNanos.NEVER;
+  private boolean nextDeadlineStale = false;
+
+  public TimingWheel(long tickNanos, long startTimeNanos) {
+    this.tickNanos = tickNanos;
+    this.slots = new ArrayList<>(LEVELS * SLOTS_PER_LEVEL);
+    for (int i = 0; i < LEVELS * SLOTS_PER_LEVEL; i++) {
+      slots.add(null);
+    }
+    this.currentTick = Math.floorDiv(startTimeNanos, tickNanos);
+  }
+
+  public void schedule(long deadlineNanos, T value) {
+    place(new Entry<>(deadlineNanos, nextSequenceNumber++, value));
+    if (!nextDeadlineStale) {
+      nextDeadlineNanos = Math.min(nextDeadlineNanos, deadlineNanos);
+    }
+  }
+
+  public T poll(long nowNanos) {
+    advanceTo(nowNanos);
+    Entry<T> entry = dueEntries.peek();
+    if (entry == null || entry.getDeadlineNanos() > nowNanos) {
+      return null;
+    }
+    dueEntries.poll();
+    nextDeadlineStale = true;
+    return entry.getValue();
+  }
+
+  public long peekNextDeadlineNanos() {
+    if (nextDeadlineStale) {
+      nextDeadlineNanos = findNextDeadlineNanos();
+      nextDeadlineStale = false;
+    }
+    return nextDeadlineNanos;
+  }
+
+  public int size() {
+    return dueEntries.size() + slottedEntryCount + overflowEntries.size();
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  private void place(Entry<T> entry) {
+    long deadlineTick = Math.floorDiv(entry.getDeadlineNanos(), tickNanos);
+    if (deadlineTick <= currentTick) {
+      dueEntries.offer(entry);
+      return;
+    }
+    // An entry lives on the lowest level whose parent slot it shares with the current tick.
+    for (int level = 0; level < LEVELS; level++) {
+      int parentShift = SLOT_BITS * (level + 1);
+      if ((deadlineTick >> parentShift) == (currentTick >> parentShift)) {
+        int slot = (int) (deadlineTick >> (SLOT_BITS * level)) & SLOT_MASK;
+        addToSlot(level, slot, entry);
+        return;
+      }
+    }
+    overflowEntries.offer(entry);
+  }
+
+  private void advanceTo(long nowNanos) {
+    long targetTick = Math.floorDiv(nowNanos, tickNanos);
+    while (currentTick < targetTick) {
+      currentTick = nextInterestingTick(targetTick);
+      if ((currentTick & SLOT_MASK) == 0) {
+        cascade();
+      }
+      drainSlot(0, (int) (currentTick & SLOT_MASK));
+    }
+  }
+
+  // Jumps straight to the next tick that has a slot to drain, rather than visiting every empty one.
+  private long nextInterestingTick(long targetTick) {
+    for (int level = 0; level < LEVELS && slottedEntryCount > 0; level++) {
+      int levelShift = SLOT_BITS * level;
+      int parentShift = levelShift + SLOT_BITS;
+      int slot = nextOccupiedSlot(level, (int) ((currentTick >> levelShift) & SLOT_MASK) + 1);
+      if (slot >= 0) {
+        long slotTick = ((currentTick >> parentShift) << parentShift) + ((long) slot << levelShift);
+        return Math.min(targetTick, slotTick);
+      }
+    }
+    Entry<T> overflowEntry = overflowEntries.peek();
+    if (overflowEntry == null) {
+      return targetTick;
+    }
+    long overflowTick = Math.floorDiv(overflowEntry.getDeadlineNanos(), tickNanos);
+    return Math.min(targetTick, (overflowTick >> HORIZON_BITS) << HORIZON_BITS);
+  }
+
+  private void cascade() {
+    if ((currentTick & ((1L << HORIZON_BITS) - 1)) == 0) {
+      while (!overflowEntries.isEmpty()
+          && (Math.floorDiv(overflowEntries.peek().getDeadlineNanos(), tickNanos) >> HORIZON_BITS)
+              <= (currentTick >> HORIZON_BITS)) {
+        place(overflowEntries.poll());
+      }
+    }
+    for (int level = LEVELS - 1; level > 0; level--) {
+      int levelShift = SLOT_BITS * level;
+      if ((currentTick & ((1L << levelShift) - 1)) == 0) {
+        drainSlot(level, (int) (currentTick >> levelShift) & SLOT_MASK);
+      }
+    }
+  }
+
+  private void drainSlot(int level, int slot) {
+    int slotIndex = level * SLOTS_PER_LEVEL + slot;
+    List<Entry<T>> entries = slots.get(slotIndex);
+    if (entries == null || entries.isEmpty()) {
+      return;
+    }
+    slots.set(slotIndex, null);
+    slotOccupancy[slotIndex / Long.SIZE] &= ~(1L << slotIndex);
+    slottedEntryCount -= entries.size();
+    // Entries are re-placed in their original order, which preserves FIFO order for ties.
+    entries.forEach(this::place);
+  }
+
+  private void addToSlot(int level, int slot, Entry<T> entry) {
+    int slotIndex = level * SLOTS_PER_LEVEL + slot;
+    List<Entry<T>> entries = slots.get(slotIndex);
+    if (entries == null) {
+      entries = new ArrayList<>();
+      slots.set(slotIndex, entries);
+      slotOccupancy[slotIndex / Long.SIZE] |= 1L << slotIndex;
+    }
+    entries.add(entry);
+    slottedEntryCount++;
+  }
+
+  private int nextOccupiedSlot(int level, int fromSlot) {
+    int firstWord = fromSlot / Long.SIZE;
+    for (int word = firstWord; word < OCCUPANCY_WORDS_PER_LEVEL; word++) {
+      long occupancy = slotOccupancy[level * OCCUPANCY_WORDS_PER_LEVEL + word];
+      if (word == firstWord) {
+        occupancy &= -1L << fromSlot;
+      }
+      if (occupancy != 0) {
+        return word * Long.SIZE + Long.numberOfTrailingZeros(occupancy);
+      }
+    }
+    return -1;
+  }
+
+  private long findNextDeadlineNanos() {
+    Entry<T> dueEntry = dueEntries.peek();
+    if (dueEntry != null) {
+      return dueEntry.getDeadlineNanos();
+    }
+    // Every entry on a level is due before every entry on the levels above it.
+    for (int level = 0; level < LEVELS && slottedEntryCount > 0; level++) {
+      int currentSlot = (int) (currentTick >> (SLOT_BITS * level)) & SLOT_MASK;
+      int slot = nextOccupiedSlot(level, currentSlot + 1);
+      if (slot >= 0) {
+        long nextDeadlineNanos = EpochNanos.NEVER;
+        for (Entry<T> entry : slots.get(level * SLOTS_PER_LEVEL + slot)) {
+          nextDeadlineNanos = Math.min(nextDeadlineNanos, entry.getDeadlineNanos());
+        }
+        return nextDeadlineNanos;
+      }
+    }
+    Entry<T> overflowEntry = overflowEntries.peek();
+    return overflowEntry == null ? EpochNanos.NEVER : overflowEntry.getDeadlineNanos();
+  }
+
+  private static class Entry<T> implements Comparable<Entry<T>> {
+    private final long deadlineNanos;
+    private final long sequenceNumber;
+    private final T value;
+
+    private Entry(long deadlineNanos, long sequenceNumber, T value) {
+      this.deadlineNanos = deadlineNanos;
+      this.sequenceNumber = sequenceNumber;
+      this.value = value;
+    }
+
+    public long getDeadlineNanos() {
+      return deadlineNanos;
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    @Override
+    public int compareTo(Entry<T> that) {
+      int comparison = Long.compare(this.deadlineNanos, that.deadlineNanos);
+      return comparison != 0 ? comparison : Long.compare(this.sequenceNumber, that.sequenceNumber);
+    }
+  }
+}
@@ -36,6 +36,14 @@ public class ByteUtils {
     return array;
   }
 
+  public static int toInt(byte[] array) {
+    int value = 0;
+    for (byte b : array) {
+      value = (value << Byte.SIZE) | (b & 0xFF);
+    }
+    return value;
+  }
+
   public static byte flip(byte b) {
     return (byte) (b ^ 0b11111111);
   }
@@ -0,0 +1,22 @@
+package thorpe.luke.util;
+
+@FunctionalInterface
+public interface ExecutionModel {
+
+  Thread newThread(Runnable runnable, String name);
+
+  static ExecutionModel platformThreads() {
+    return Thread::new;
+  }
+
+  static boolean isVirtualThreadSupported() {
+    return VirtualThreads.isSupported();
+  }
+
+  static ExecutionModel virtualThreads() {
+    if (!isVirtualThreadSupported()) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or later.");
+    }
+    return VirtualThreads::newThread;
+  }
+}
@@ -0,0 +1,113 @@
+package thorpe.luke.util;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class MpscRingBuffer<T> extends AbstractQueue<T> {
+  private final AtomicReferenceArray<T> slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong(0);
+  private volatile long head = 0;
+
+  public MpscRingBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity should be greater than or equal to 1.");
+    }
+    int roundedCapacity = Integer.highestOneBit(capacity);
+    if (roundedCapacity < capacity) {
+      roundedCapacity <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(roundedCapacity);
+    this.mask = roundedCapacity - 1;
+  }
+
+  public int capacity() {
+    return slots.length();
+  }
+
+  @Override
+  public boolean offer(T value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    long claimedTail;
+    do {
+      claimedTail = tail.get();
+      if (claimedTail - head >= slots.length()) {
+        return false;
+      }
+    } while (!tail.compareAndSet(claimedTail, claimedTail + 1));
+    slots.lazySet((int) claimedTail & mask, value);
+    return true;
+  }
+
+  // Must only be called by the consumer.
+  @Override
+  public T poll() {
+    long currentHead = head;
+    int slot = (int) currentHead & mask;
+    // A claimed slot stays empty until its producer has finished publishing to it.
+    T value = slots.get(slot);
+    if (value == null) {
+      return null;
+    }
+    slots.lazySet(slot, null);
+    head = currentHead + 1;
+    return value;
+  }
+
+  // Must only be called by the consumer.
+  @Override
+  public T peek() {
+    return slots.get((int) head & mask);
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.max(0, Math.min(tail.get() - head, slots.length()));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return tail.get() == head;
+  }
+
+  // Weakly consistent, in the same vein as the iterators of java.util.concurrent.
+  @Override
+  public Iterator<T> iterator() {
+    long start = head;
+    long end = tail.get();
+    return new Iterator<T>() {
+      private long next = start;
+      private T nextValue = advance();
+
+      private T advance() {
+        while (next < end) {
+          T value = slots.get((int) next++ & mask);
+          if (value != null) {
+            return value;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return nextValue != null;
+      }
+
+      @Override
+      public T next() {
+        if (nextValue == null) {
+          throw new NoSuchElementException();
+        }
+        T value = nextValue;
+        nextValue = advance();
+        return value;
+      }
+    };
+  }
+}
@@ -0,0 +1,72 @@
+package thorpe.luke.util;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+// Unlike Random, draws do not synchronise on an atomic seed, so an instance must not be shared
+// between threads; split one off for each thread or filter instead.
+public class SplittableRandomAdaptor extends Random {
+
+  private SplittableRandom splittableRandom;
+
+  public SplittableRandomAdaptor() {
+    this(new SplittableRandom());
+  }
+
+  public SplittableRandomAdaptor(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private SplittableRandomAdaptor(SplittableRandom splittableRandom) {
+    this.splittableRandom = splittableRandom;
+  }
+
+  public static SplittableRandomAdaptor splitFrom(Random random) {
+    if (random instanceof SplittableRandomAdaptor) {
+      return ((SplittableRandomAdaptor) random).split();
+    }
+    return new SplittableRandomAdaptor(random.nextLong());
+  }
+
+  public SplittableRandomAdaptor split() {
+    return new SplittableRandomAdaptor(splittableRandom.split());
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    // Random's constructor sets a seed before this class has been initialised.
+    if (splittableRandom != null) {
+      splittableRandom = new SplittableRandom(seed);
+    }
+  }
+
+  @Override
+  protected int next(int bits) {
+    return splittableRandom.nextInt() >>> (Integer.SIZE - bits);
+  }
+
+  @Override
+  public int nextInt() {
+    return splittableRandom.nextInt();
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    return splittableRandom.nextInt(bound);
+  }
+
+  @Override
+  public long nextLong() {
+    return splittableRandom.nextLong();
+  }
+
+  @Override
+  public double nextDouble() {
+    return splittableRandom.nextDouble();
+  }
+
+  @Override
+  public boolean nextBoolean() {
+    return splittableRandom.nextBoolean();
+  }
+}
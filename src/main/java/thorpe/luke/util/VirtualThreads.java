@@ -0,0 +1,36 @@
+package thorpe.luke.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Virtual threads are looked up reflectively, so that the project still builds against Java 8.
+final class VirtualThreads {
+  private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+  private static final Method NAME =
+      OF_VIRTUAL == null ? null : lookup(OF_VIRTUAL.getReturnType(), "name", String.class);
+  private static final Method UNSTARTED =
+      OF_VIRTUAL == null ? null : lookup(OF_VIRTUAL.getReturnType(), "unstarted", Runnable.class);
+
+  private VirtualThreads() {}
+
+  private static Method lookup(Class<?> clazz, String name, Class<?>... parameterTypes) {
+    try {
+      return clazz.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  static Thread newThread(Runnable runnable, String name) {
+    try {
+      Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+      return (Thread) UNSTARTED.invoke(builder, runnable);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package thorpe.luke.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class EmpiricalDistributionTest extends DistributionTest<Double> {
+
+  private static Path writeQuantiles(double... quantiles) {
+    try {
+      Path path = Files.createTempFile("quantiles", ".bin");
+      path.toFile().deleteOnExit();
+      try (DataOutputStream outputStream = new DataOutputStream(Files.newOutputStream(path))) {
+        for (double quantile : quantiles) {
+          outputStream.writeDouble(quantile);
+        }
+      }
+      return path;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  protected Collection<DistributionWithCdfTable> getSomeDistributionsWithCdfTables() {
+    return Arrays.asList(
+        distributionWithCdfTable(
+            EmpiricalDistribution.fromFile(writeQuantiles(0.0, 1.0, 10.0)),
+            new HashMap<Double, Double>() {
+              {
+                put(0.25, 0.5);
+                put(0.5, 1.0);
+                put(0.75, 5.5);
+                put(1.0, 10.0);
+              }
+            }),
+        distributionWithCdfTable(
+            EmpiricalDistribution.fromFile(writeQuantiles(20.0, 25.0, 25.0, 40.0, 100.0)),
+            new HashMap<Double, Double>() {
+              {
+                put(0.125, 22.5);
+                put(0.5, 25.0);
+                put(0.625, 32.5);
+                put(0.875, 70.0);
+              }
+            }));
+  }
+
+  private DistributionWithCdfTable distributionWithCdfTable(
+      EmpiricalDistribution distribution, Map<Double, Double> cdfTable) {
+    return new DistributionWithCdfTable(distribution, cdfTable);
+  }
+
+  @Test
+  public void testSingleQuantileIsAlwaysSampled() {
+    EmpiricalDistribution distribution =
+        new EmpiricalDistribution(DoubleBuffer.wrap(new double[] {7.0}));
+    assertThat(distribution.sampleAsDouble(new Random(0))).isEqualTo(7.0);
+    assertThat(distribution.mean()).isCloseTo(7.0, within(1e-9));
+    assertThat(distribution.variance()).isCloseTo(0.0, within(1e-9));
+  }
+
+  @Test
+  public void testDescendingQuantilesAreRejected() {
+    assertThatThrownBy(() -> EmpiricalDistribution.fromFile(writeQuantiles(1.0, 0.0)))
+        .isInstanceOf(EmpiricalDistributionException.class);
+  }
+
+  @Test
+  public void testEmptyFileIsRejected() {
+    assertThatThrownBy(() -> EmpiricalDistribution.fromFile(writeQuantiles()))
+        .isInstanceOf(EmpiricalDistributionException.class);
+  }
+
+  @Test
+  public void testEmptyBufferIsRejected() {
+    assertThatThrownBy(() -> new EmpiricalDistribution(DoubleBuffer.allocate(0)))
+        .isInstanceOf(EmpiricalDistributionException.class);
+  }
+
+  @Test
+  public void testFileTooBigToMapIsRejected() throws IOException {
+    Path path = writeQuantiles();
+    // Extending the file leaves it sparse, so this does not actually write gigabytes to disk.
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.setLength(Integer.MAX_VALUE + 1L + Double.BYTES);
+    }
+    try {
+      assertThatThrownBy(() -> EmpiricalDistribution.fromFile(path))
+          .isInstanceOf(EmpiricalDistributionException.class);
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
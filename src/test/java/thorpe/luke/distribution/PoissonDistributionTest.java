@@ -1,9 +1,15 @@
 package thorpe.luke.distribution;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Test;
 
 public class PoissonDistributionTest extends DistributionTest<Integer> {
 
@@ -96,6 +102,19 @@ public class PoissonDistributionTest extends DistributionTest<Integer> {
                 put(0.9999, 14);
                 put(1.0000, 15);
               }
+            }),
+        distributionWithCdfTable(
+            1000.0,
+            new HashMap<Double, Integer>() {
+              {
+                put(0.0007, 900);
+                put(0.0578, 950);
+                put(0.2698, 980);
+                put(0.5084, 1000);
+                put(0.7426, 1020);
+                put(0.9440, 1050);
+                put(0.9991, 1100);
+              }
             }));
   }
 
@@ -103,4 +122,32 @@ public class PoissonDistributionTest extends DistributionTest<Integer> {
       double lambda, Map<Double, Integer> cdfTable) {
     return new DistributionWithCdfTable(new PoissonDistribution(lambda), cdfTable);
   }
+
+  @Test
+  public void testBulkSamplesMatchIndividualSamples() {
+    final int N = 1000;
+    PoissonDistribution distribution = new PoissonDistribution(3.5);
+    int[] bulkSamples = new int[N];
+    distribution.sample(new Random(42), bulkSamples, N);
+    Random random = new Random(42);
+    int[] individualSamples =
+        IntStream.range(0, N).map(i -> distribution.sampleAsInt(random)).toArray();
+    assertThat(bulkSamples).isEqualTo(individualSamples);
+  }
+
+  @Test
+  public void testSamplesStayNearTheMeanWhenLambdaIsVeryLarge() {
+    // exp(-lambda) underflows to zero for lambda this large.
+    final int N = 10_000;
+    final double LAMBDA = 1_000_000.0;
+    PoissonDistribution distribution = new PoissonDistribution(LAMBDA);
+    int[] samples = new int[N];
+    distribution.sample(new Random(42), samples, N);
+    // Every sample should be within 6 standard deviations of the mean.
+    double bound = 6.0 * Math.sqrt(LAMBDA);
+    assertThat((double) Arrays.stream(samples).min().getAsInt()).isGreaterThan(LAMBDA - bound);
+    assertThat((double) Arrays.stream(samples).max().getAsInt()).isLessThan(LAMBDA + bound);
+    double sampleMean = Arrays.stream(samples).average().orElseThrow(AssertionError::new);
+    assertThat(sampleMean).isCloseTo(LAMBDA, within(2.58 * Math.sqrt(LAMBDA / N)));
+  }
 }
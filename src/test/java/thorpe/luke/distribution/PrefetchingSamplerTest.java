@@ -0,0 +1,46 @@
+package thorpe.luke.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class PrefetchingSamplerTest {
+
+  // Spans a few refills, ending part of the way through a batch.
+  private static final int N = 3 * PrefetchingSampler.BATCH_SIZE + 5;
+  private static final int BULK_N = 4 * PrefetchingSampler.BATCH_SIZE;
+
+  @Test
+  public void testBooleanSamplesMatchBulkSamples() {
+    BooleanDistribution distribution = new BernoulliDistribution(0.3);
+    boolean[] bulkSamples = new boolean[BULK_N];
+    distribution.sample(new Random(42), bulkSamples, BULK_N);
+    PrefetchingBooleanSampler sampler = new PrefetchingBooleanSampler(distribution, new Random(42));
+    for (int i = 0; i < N; i++) {
+      assertThat(sampler.nextBoolean()).isEqualTo(bulkSamples[i]);
+    }
+  }
+
+  @Test
+  public void testIntSamplesMatchBulkSamples() {
+    IntDistribution distribution = new PoissonDistribution(3.5);
+    int[] bulkSamples = new int[BULK_N];
+    distribution.sample(new Random(42), bulkSamples, BULK_N);
+    PrefetchingIntSampler sampler = new PrefetchingIntSampler(distribution, new Random(42));
+    for (int i = 0; i < N; i++) {
+      assertThat(sampler.nextInt()).isEqualTo(bulkSamples[i]);
+    }
+  }
+
+  @Test
+  public void testDoubleSamplesMatchBulkSamples() {
+    DoubleDistribution distribution = new UniformRealDistribution(0.0, 10.0);
+    double[] bulkSamples = new double[BULK_N];
+    distribution.sample(new Random(42), bulkSamples, BULK_N);
+    PrefetchingDoubleSampler sampler = new PrefetchingDoubleSampler(distribution, new Random(42));
+    for (int i = 0; i < N; i++) {
+      assertThat(sampler.nextDouble()).isEqualTo(bulkSamples[i]);
+    }
+  }
+}
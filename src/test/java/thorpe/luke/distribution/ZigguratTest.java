@@ -0,0 +1,100 @@
+package thorpe.luke.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+import java.util.stream.DoubleStream;
+import org.junit.Test;
+
+public class ZigguratTest {
+
+  private static final int N = 2_000_000;
+  // Tolerances are five standard errors wide, so that a correct sampler practically never fails.
+  private static final double Z = 5.0;
+
+  private static double[] sampleStandardNormals(long seed) {
+    Random random = new Random(seed);
+    return DoubleStream.generate(() -> Ziggurat.sampleStandardNormal(random)).limit(N).toArray();
+  }
+
+  private static double[] sampleStandardExponentials(long seed) {
+    Random random = new Random(seed);
+    return DoubleStream.generate(() -> Ziggurat.sampleStandardExponential(random))
+        .limit(N)
+        .toArray();
+  }
+
+  private static double fractionAbove(double[] samples, double x) {
+    return DoubleStream.of(samples).filter(sample -> sample > x).count() / (double) samples.length;
+  }
+
+  private static double fractionBelow(double[] samples, double x) {
+    return DoubleStream.of(samples).filter(sample -> sample < x).count() / (double) samples.length;
+  }
+
+  private static void assertFractionIsClose(double fraction, double probability) {
+    double standardError = Math.sqrt(probability * (1.0 - probability) / N);
+    assertThat(fraction).isCloseTo(probability, within(Z * standardError));
+  }
+
+  @Test
+  public void testStandardNormalSamplesHaveTheRightMoments() {
+    double[] samples = sampleStandardNormals(42);
+    double mean = DoubleStream.of(samples).average().orElseThrow(AssertionError::new);
+    double variance =
+        DoubleStream.of(samples).map(x -> x * x).average().orElseThrow(AssertionError::new);
+    double kurtosis =
+        DoubleStream.of(samples).map(x -> x * x * x * x).average().orElseThrow(AssertionError::new);
+    // The second and fourth moments of a standard normal have variances 2 and 96.
+    assertThat(mean).isCloseTo(0.0, within(Z * Math.sqrt(1.0 / N)));
+    assertThat(variance).isCloseTo(1.0, within(Z * Math.sqrt(2.0 / N)));
+    assertThat(kurtosis).isCloseTo(3.0, within(Z * Math.sqrt(96.0 / N)));
+  }
+
+  @Test
+  public void testStandardNormalSamplesHaveTheRightTails() {
+    double[] samples = sampleStandardNormals(1337);
+    // Upper tail probabilities of the standard normal, including the start of the base layer's tail.
+    double[][] upperTailProbabilities = {
+      {0.25, 0.4012936743170763},
+      {0.5, 0.3085375387259869},
+      {1.0, 0.15865525393145707},
+      {1.5, 0.06680720126885809},
+      {2.0, 0.02275013194817922},
+      {2.5, 0.006209665325776139},
+      {3.0, 0.0013498980316300957},
+      {3.442619855899, 0.00028805425619582025},
+      {4.0, 3.1671241833119965e-05}
+    };
+    for (double[] upperTailProbability : upperTailProbabilities) {
+      double x = upperTailProbability[0];
+      double probability = upperTailProbability[1];
+      assertFractionIsClose(fractionAbove(samples, x), probability);
+      assertFractionIsClose(fractionBelow(samples, -x), probability);
+    }
+  }
+
+  @Test
+  public void testStandardExponentialSamplesHaveTheRightMoments() {
+    double[] samples = sampleStandardExponentials(42);
+    double mean = DoubleStream.of(samples).average().orElseThrow(AssertionError::new);
+    double secondMoment =
+        DoubleStream.of(samples).map(x -> x * x).average().orElseThrow(AssertionError::new);
+    // The first and second moments of a standard exponential have variances 1 and 20.
+    assertThat(mean).isCloseTo(1.0, within(Z * Math.sqrt(1.0 / N)));
+    assertThat(secondMoment).isCloseTo(2.0, within(Z * Math.sqrt(20.0 / N)));
+  }
+
+  @Test
+  public void testStandardExponentialSamplesHaveTheRightTails() {
+    double[] samples = sampleStandardExponentials(1337);
+    assertThat(DoubleStream.of(samples).min().orElseThrow(AssertionError::new))
+        .isGreaterThanOrEqualTo(0.0);
+    // Covers every layer as well as the start of the base layer's tail at about 7.7.
+    for (double x = 0.25; x <= 10.0; x += 0.25) {
+      assertFractionIsClose(fractionAbove(samples, x), Math.exp(-x));
+    }
+    assertFractionIsClose(fractionAbove(samples, 7.697117470131487), Math.exp(-7.697117470131487));
+  }
+}
@@ -0,0 +1,63 @@
+package thorpe.luke.network.packet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ConcurrentNeutralPacketFilterTest {
+
+  private static final int CAPACITY = 2;
+
+  @Test
+  public void testDropTailDropsAndCountsPacketsThatDoNotFit() {
+    ConcurrentNeutralPacketFilter<Packet> filter =
+        new ConcurrentNeutralPacketFilter<>(CAPACITY, IngressOverflowPolicy.DROP_TAIL);
+    Packet packet1 = Packet.of("Packet #1");
+    Packet packet2 = Packet.of("Packet #2");
+    filter.enqueue(packet1);
+    filter.enqueue(packet2);
+    filter.enqueue(Packet.of("Packet #3"));
+    assertThat(filter.getDroppedPacketCount()).isEqualTo(1);
+    assertThat(filter.tryDequeue()).hasValue(packet1);
+    assertThat(filter.tryDequeue()).hasValue(packet2);
+    assertThat(filter.tryDequeue()).isEmpty();
+  }
+
+  @Test(timeout = 10000)
+  public void testBlockWaitsUntilThereIsRoom() throws InterruptedException {
+    ConcurrentNeutralPacketFilter<Packet> filter =
+        new ConcurrentNeutralPacketFilter<>(CAPACITY, IngressOverflowPolicy.BLOCK);
+    Packet packet1 = Packet.of("Packet #1");
+    Packet packet2 = Packet.of("Packet #2");
+    Packet packet3 = Packet.of("Packet #3");
+    filter.enqueue(packet1);
+    filter.enqueue(packet2);
+    CountDownLatch enqueued = new CountDownLatch(1);
+    Thread sender =
+        new Thread(
+            () -> {
+              filter.enqueue(packet3);
+              enqueued.countDown();
+            });
+    sender.start();
+    assertThat(enqueued.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(filter.tryDequeue()).hasValue(packet1);
+    assertThat(enqueued.await(5, TimeUnit.SECONDS)).isTrue();
+    sender.join();
+    assertThat(filter.tryDequeue()).hasValue(packet2);
+    assertThat(filter.tryDequeue()).hasValue(packet3);
+    assertThat(filter.getDroppedPacketCount()).isZero();
+  }
+
+  @Test
+  public void testEnqueueWithoutBlockingDropsEvenWhenTheOverflowPolicyBlocks() {
+    ConcurrentNeutralPacketFilter<Packet> filter =
+        new ConcurrentNeutralPacketFilter<>(CAPACITY, IngressOverflowPolicy.BLOCK);
+    filter.enqueueWithoutBlocking(Packet.of("Packet #1"));
+    filter.enqueueWithoutBlocking(Packet.of("Packet #2"));
+    filter.enqueueWithoutBlocking(Packet.of("Packet #3"));
+    assertThat(filter.getDroppedPacketCount()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,40 @@
+package thorpe.luke.network.packet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class PacketLimitingFilterTest {
+
+  private static int enqueueAndCount(PacketFilter<Packet> packetFilter, int packetCount) {
+    for (byte i = 0; i < packetCount; i++) {
+      packetFilter.enqueue(Packet.fromBytes(i));
+    }
+    int acceptedPacketCount = 0;
+    while (packetFilter.tryDequeue().isPresent()) {
+      acceptedPacketCount++;
+    }
+    return acceptedPacketCount;
+  }
+
+  @Test
+  public void testBurstIsAcceptedThenTokensRefillContinuously() {
+    long startTimeNanos = 0L;
+    PacketLimitingFilter<Packet> packetLimitingFilter =
+        new PacketLimitingFilter<>(10, 3, ChronoUnit.SECONDS, startTimeNanos);
+    packetLimitingFilter.tick(startTimeNanos);
+    assertThat(enqueueAndCount(packetLimitingFilter, 5)).isEqualTo(3);
+
+    // At 10 packets per second, a token is earned every 100 milliseconds.
+    packetLimitingFilter.tick(startTimeNanos + TimeUnit.MILLISECONDS.toNanos(150));
+    assertThat(enqueueAndCount(packetLimitingFilter, 5)).isEqualTo(1);
+    packetLimitingFilter.tick(startTimeNanos + TimeUnit.MILLISECONDS.toNanos(200));
+    assertThat(enqueueAndCount(packetLimitingFilter, 5)).isEqualTo(1);
+
+    // An idle filter is granted no more than a full bucket.
+    packetLimitingFilter.tick(startTimeNanos + TimeUnit.SECONDS.toNanos(10));
+    assertThat(enqueueAndCount(packetLimitingFilter, 5)).isEqualTo(3);
+  }
+}
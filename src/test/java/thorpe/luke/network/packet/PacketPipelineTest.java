@@ -0,0 +1,88 @@
+package thorpe.luke.network.packet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import org.junit.Test;
+import thorpe.luke.time.EpochNanos;
+
+public class PacketPipelineTest {
+
+  private static final long START_TIME_NANOS = 0L;
+
+  private static PacketPipeline<Packet> zeroLatencyPacketPipeline() {
+    return new PacketPipeline<>(
+        PacketPipeline.parameters(
+            NetworkCondition.uniformPacketLatency(0.0, 0.0, ChronoUnit.MILLIS, new Random(0))),
+        START_TIME_NANOS);
+  }
+
+  @Test
+  public void testTickMovesOnePacketPerStageByDefault() {
+    PacketPipeline<Packet> packetPipeline = zeroLatencyPacketPipeline();
+    Packet packet1 = Packet.of("Packet #1");
+    Packet packet2 = Packet.of("Packet #2");
+    packetPipeline.enqueue(packet1);
+    packetPipeline.enqueue(packet2);
+    packetPipeline.tick(START_TIME_NANOS);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet1);
+    assertThat(packetPipeline.tryDequeue()).isEmpty();
+    packetPipeline.tick(START_TIME_NANOS);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet2);
+  }
+
+  @Test
+  public void testBatchTickMovesAllDuePacketsUpToTheCap() {
+    PacketPipeline<Packet> packetPipeline = zeroLatencyPacketPipeline();
+    Packet packet1 = Packet.of("Packet #1");
+    Packet packet2 = Packet.of("Packet #2");
+    Packet packet3 = Packet.of("Packet #3");
+    packetPipeline.enqueue(packet1);
+    packetPipeline.enqueue(packet2);
+    packetPipeline.enqueue(packet3);
+    packetPipeline.tick(START_TIME_NANOS, 2);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet1);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet2);
+    assertThat(packetPipeline.tryDequeue()).isEmpty();
+    packetPipeline.tick(START_TIME_NANOS, 2);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet3);
+    assertThat(packetPipeline.tryDequeue()).isEmpty();
+  }
+
+  @Test
+  public void testStatelessConditionsAreAppliedInASingleStage() {
+    Random random = new Random(0);
+    PacketPipeline<Packet> packetPipeline =
+        new PacketPipeline<>(
+            PacketPipeline.parameters(
+                NetworkCondition.uniformPacketDrop(0.0, random),
+                NetworkCondition.uniformPacketCorruption(0.0, random),
+                NetworkCondition.poissonPacketDuplication(0.0, random),
+                NetworkCondition.uniformPacketLatency(0.0, 0.0, ChronoUnit.MILLIS, random),
+                NetworkCondition.uniformPacketDrop(0.0, random),
+                NetworkCondition.uniformPacketDrop(0.0, random)),
+            START_TIME_NANOS);
+    Packet packet = Packet.of("Packet");
+    packetPipeline.enqueue(packet);
+    packetPipeline.tick(START_TIME_NANOS);
+    assertThat(packetPipeline.tryDequeue()).hasValue(packet);
+    assertThat(packetPipeline.tryDequeue()).isEmpty();
+  }
+
+  @Test
+  public void testFusedStageDropsPacketsBeforeTheyReachTheNextStage() {
+    Random random = new Random(0);
+    PacketPipeline<Packet> packetPipeline =
+        new PacketPipeline<>(
+            PacketPipeline.parameters(
+                NetworkCondition.poissonPacketDuplication(0.0, random),
+                NetworkCondition.uniformPacketDrop(1.0, random),
+                NetworkCondition.uniformPacketLatency(0.0, 0.0, ChronoUnit.MILLIS, random)),
+            START_TIME_NANOS);
+    packetPipeline.enqueue(Packet.of("Packet"));
+    packetPipeline.tick(START_TIME_NANOS);
+    assertThat(packetPipeline.tryDequeue()).isEmpty();
+    assertThat(packetPipeline.peekNextDequeueTimeNanos()).isEqualTo(EpochNanos.NEVER);
+  }
+}
@@ -2,6 +2,7 @@ package thorpe.luke.network.packet;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import org.junit.Test;
 import thorpe.luke.network.simulation.node.NodeAddress;
@@ -47,6 +48,40 @@ public class PacketTest {
     assertThat(corruptedPacket.tryParse(String.class)).hasValue("hellm there!");
   }
 
+  @Test
+  public void testPacketAccessorsDoNotExposeBackingData() {
+    byte[] bytes = {1, 2, 3};
+    Packet packet = Packet.fromBytes(bytes);
+    bytes[0] = 4;
+    assertThat(packet.length()).isEqualTo(3);
+    assertThat(packet.byteAt(0)).isEqualTo((byte) 1);
+    assertThat(packet.asReadOnlyBuffer().isReadOnly()).isTrue();
+    assertThat(packet.asReadOnlyBuffer().get(2)).isEqualTo((byte) 3);
+    packet.toByteArray()[1] = 5;
+    assertThat(packet).isEqualTo(Packet.fromBytes((byte) 1, (byte) 2, (byte) 3));
+  }
+
+  @Test
+  public void testSourceIpv4AddressSurvivesCopiesAndMaps() {
+    int sourceIpv4Address = 0x7F000003;
+    Packet packet = Packet.fromBuffer(ByteBuffer.wrap(new byte[] {1, 2}), sourceIpv4Address);
+    assertThat(packet.length()).isEqualTo(2);
+    assertThat(packet.copy().getSourceIpv4Address()).isEqualTo(sourceIpv4Address);
+    assertThat(flipBits(packet).getSourceIpv4Address()).isEqualTo(sourceIpv4Address);
+    assertThat(packet).isNotEqualTo(Packet.fromBytes((byte) 1, (byte) 2));
+  }
+
+  @Test
+  public void testFlippedBitsLeaveTheOriginalPacketIntact() {
+    Packet packet = Packet.fromBytes((byte) 0b00000001, (byte) 0b00000010);
+    Packet corruptedPacket = packet.flipBits(1, (byte) 0b00000011).flipBits(0, (byte) 0b00000001);
+    assertThat(corruptedPacket.byteAt(1)).isEqualTo((byte) 0b00000001);
+    assertThat(corruptedPacket).isEqualTo(Packet.fromBytes((byte) 0, (byte) 0b00000001));
+    assertThat(corruptedPacket.flipBits(1, (byte) 0b00000011).flipBits(0, (byte) 0b00000001))
+        .isEqualTo(packet);
+    assertThat(packet).isEqualTo(Packet.fromBytes((byte) 0b00000001, (byte) 0b00000010));
+  }
+
   @Test
   public void testPacketEquals() {
     byte byte0 = 0b00000000;
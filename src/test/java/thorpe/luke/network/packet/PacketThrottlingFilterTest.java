@@ -0,0 +1,34 @@
+package thorpe.luke.network.packet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class PacketThrottlingFilterTest {
+
+  @Test
+  public void testPacketsLeaveInOrderAtTheThrottledRate() {
+    final int N = 100;
+    long startTimeNanos = 0L;
+    // A throttle rate of 500 spaces out packets of 1 byte by 1 millisecond.
+    PacketThrottlingFilter<Packet> packetThrottlingFilter =
+        new PacketThrottlingFilter<>(500, 1000, ChronoUnit.SECONDS, startTimeNanos);
+    packetThrottlingFilter.tick(startTimeNanos);
+    for (int i = 0; i < N; i++) {
+      packetThrottlingFilter.enqueue(Packet.fromBytes((byte) i));
+    }
+    for (int i = 1; i <= N; i++) {
+      long dequeueTimeNanos = startTimeNanos + TimeUnit.MILLISECONDS.toNanos(i);
+      assertThat(packetThrottlingFilter.peekNextDequeueTimeNanos()).isEqualTo(dequeueTimeNanos);
+      packetThrottlingFilter.tick(dequeueTimeNanos - 1);
+      assertThat(packetThrottlingFilter.tryDequeue()).isEmpty();
+      packetThrottlingFilter.tick(dequeueTimeNanos);
+      assertThat(packetThrottlingFilter.tryDequeue())
+          .isEqualTo(Optional.of(Packet.fromBytes((byte) (i - 1))));
+    }
+    assertThat(packetThrottlingFilter.tryDequeue()).isEmpty();
+  }
+}
@@ -0,0 +1,120 @@
+package thorpe.luke.network.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import thorpe.luke.network.packet.NetworkCondition;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.packet.PacketPipeline;
+import thorpe.luke.network.simulation.node.NodeAddress;
+import thorpe.luke.network.simulation.worker.WorkerAddress;
+import thorpe.luke.util.ByteUtils;
+
+public class DatagramRouterTest {
+
+  private static final int DATAGRAM_BUFFER_SIZE = 64;
+  private static final long ROUTING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private static final WorkerAddress ALICE = new NodeAddress("Alice").asRootWorkerAddress();
+  private static final WorkerAddress BOB = new NodeAddress("Bob").asRootWorkerAddress();
+
+  private static class RoutedMail {
+    private final WorkerAddress sourceAddress;
+    private final WorkerAddress destinationAddress;
+    private final Packet packet;
+
+    private RoutedMail(
+        WorkerAddress sourceAddress, WorkerAddress destinationAddress, Packet packet) {
+      this.sourceAddress = sourceAddress;
+      this.destinationAddress = destinationAddress;
+      this.packet = packet;
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testDatagramsAreRoutedBySourceAddressAndUnknownSourcesIgnored() throws IOException {
+    InetAddress publicIpAddress = InetAddress.getByName("127.0.0.1");
+    InetAddress alicePrivateIpAddress = InetAddress.getByName("127.0.0.2");
+    InetAddress unknownIpAddress = InetAddress.getByName("127.0.0.3");
+    DatagramChannel bobPublicChannel =
+        DatagramChannel.open().bind(new InetSocketAddress(publicIpAddress, 0));
+    List<RoutedMail> routedMail = Collections.synchronizedList(new LinkedList<>());
+    DatagramRouter datagramRouter =
+        new DatagramRouter(
+            DATAGRAM_BUFFER_SIZE,
+            Collections.singletonMap(bobPublicChannel, BOB),
+            Collections.singletonMap(alicePrivateIpAddress, ALICE),
+            (sourceAddress, destinationAddress, packet) ->
+                routedMail.add(new RoutedMail(sourceAddress, destinationAddress, packet)));
+
+    try (DatagramChannel unknownChannel =
+            DatagramChannel.open().bind(new InetSocketAddress(unknownIpAddress, 0));
+        DatagramChannel aliceChannel =
+            DatagramChannel.open().bind(new InetSocketAddress(alicePrivateIpAddress, 0))) {
+      // The unknown datagram is sent first, so it is received first.
+      unknownChannel.send(ByteBuffer.wrap(new byte[] {0}), bobPublicChannel.getLocalAddress());
+      aliceChannel.send(ByteBuffer.wrap(new byte[] {1, 2, 3}), bobPublicChannel.getLocalAddress());
+    }
+    long deadlineNanoTime = System.nanoTime() + ROUTING_TIMEOUT_NANOS;
+    datagramRouter.routeUntil(() -> !routedMail.isEmpty() || System.nanoTime() > deadlineNanoTime);
+
+    assertThat(routedMail).hasSize(1);
+    RoutedMail mail = routedMail.get(0);
+    assertThat(mail.sourceAddress).isEqualTo(ALICE);
+    assertThat(mail.destinationAddress).isEqualTo(BOB);
+    assertThat(mail.packet.toByteArray()).containsExactly(1, 2, 3);
+    assertThat(mail.packet.getSourceIpv4Address())
+        .isEqualTo(ByteUtils.toInt(alicePrivateIpAddress.getAddress()));
+    // The router closes its channels once it is done.
+    assertThat(bobPublicChannel.isOpen()).isFalse();
+  }
+
+  @Test(timeout = 10000)
+  public void testEmptyDatagramSurvivesACorruptingConnection() throws IOException {
+    InetAddress publicIpAddress = InetAddress.getByName("127.0.0.1");
+    InetAddress alicePrivateIpAddress = InetAddress.getByName("127.0.0.2");
+    DatagramChannel bobPublicChannel =
+        DatagramChannel.open().bind(new InetSocketAddress(publicIpAddress, 0));
+    PacketPipeline<Packet> corruptingPacketPipeline =
+        new PacketPipeline<>(
+            PacketPipeline.parameters(NetworkCondition.uniformPacketCorruption(1.0, new Random(0))),
+            0L);
+    AtomicInteger routedMailCount = new AtomicInteger();
+    DatagramRouter datagramRouter =
+        new DatagramRouter(
+            DATAGRAM_BUFFER_SIZE,
+            Collections.singletonMap(bobPublicChannel, BOB),
+            Collections.singletonMap(alicePrivateIpAddress, ALICE),
+            (sourceAddress, destinationAddress, packet) -> {
+              corruptingPacketPipeline.enqueue(packet);
+              routedMailCount.incrementAndGet();
+              return true;
+            });
+
+    try (DatagramChannel aliceChannel =
+        DatagramChannel.open().bind(new InetSocketAddress(alicePrivateIpAddress, 0))) {
+      aliceChannel.send(ByteBuffer.allocate(0), bobPublicChannel.getLocalAddress());
+    }
+    long deadlineNanoTime = System.nanoTime() + ROUTING_TIMEOUT_NANOS;
+    datagramRouter.routeUntil(
+        () -> routedMailCount.get() > 0 || System.nanoTime() > deadlineNanoTime);
+
+    assertThat(routedMailCount.get()).isEqualTo(1);
+    corruptingPacketPipeline.tick(0L);
+    Optional<Packet> packet = corruptingPacketPipeline.tryDequeue();
+    assertThat(packet).isPresent();
+    assertThat(packet.get().length()).isZero();
+  }
+}
@@ -0,0 +1,132 @@
+package thorpe.luke.network.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import thorpe.luke.network.packet.NetworkCondition;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.packet.PacketPipeline;
+import thorpe.luke.network.simulation.worker.WorkerAddress;
+import thorpe.luke.network.simulation.worker.WorkerManager;
+import thorpe.luke.time.EpochNanos;
+
+public class PacketCourierSimulationTest {
+
+  private static final String NODE_A_NAME = "Alice";
+  private static final String NODE_B_NAME = "Bob";
+  private static final String NODE_C_NAME = "Carol";
+
+  // Far too long to reach one millisecond tick at a time.
+  private static final long LATENCY_HOURS = 1000;
+
+  private static final long PING_LATENCY_MILLIS = 100;
+  private static final long UNRELATED_LATENCY_MILLIS = 1000;
+
+  private static PacketPipeline.Parameters fixedLatency(long latency, ChronoUnit unit) {
+    return PacketPipeline.parameters(
+        NetworkCondition.uniformPacketLatency(latency, latency, unit, new Random(0)));
+  }
+
+  private static WorkerAddress rootWorkerAddressOf(WorkerManager workerManager, String name) {
+    return workerManager.getTopology().getNodeAddress(name).asRootWorkerAddress();
+  }
+
+  @Test(timeout = 10000)
+  public void testEventDrivenClockJumpsStraightToTheNextDelivery() {
+    List<Packet> receivedMail = Collections.synchronizedList(new LinkedList<>());
+    PacketCourierSimulation simulation =
+        PacketCourierSimulation.configuration()
+            .addNode(
+                NODE_A_NAME,
+                workerManager ->
+                    workerManager.sendMail(
+                        workerManager
+                            .getTopology()
+                            .getNodeAddress(NODE_B_NAME)
+                            .asRootWorkerAddress(),
+                        Packet.of("Hello")))
+            .addNode(NODE_B_NAME, workerManager -> receivedMail.add(workerManager.waitForMail()))
+            .addConnection(
+                NODE_A_NAME,
+                NODE_B_NAME,
+                PacketPipeline.parameters(
+                    NetworkCondition.uniformPacketLatency(
+                        LATENCY_HOURS, LATENCY_HOURS, ChronoUnit.HOURS, new Random(0))))
+            .usingEventDrivenClock()
+            .configure();
+    simulation.run();
+    assertThat(receivedMail).containsExactly(Packet.of("Hello"));
+    assertThat(simulation.getCurrentTimeNanos())
+        .isEqualTo(EpochNanos.toNanos(LATENCY_HOURS, ChronoUnit.HOURS));
+    // Virtual time starts at the Unix epoch.
+    assertThat(EpochNanos.toLocalDateTime(simulation.getCurrentTimeNanos()))
+        .isEqualTo(LocalDateTime.of(1970, Month.JANUARY, 1, 0, 0).plusHours(LATENCY_HOURS));
+  }
+
+  @Test(timeout = 10000)
+  public void testEventDrivenClockWaitsForRepliesBeforeJumpingAhead() {
+    AtomicReference<PacketCourierSimulation> simulationReference = new AtomicReference<>();
+    AtomicLong pongReceiptTimeNanos = new AtomicLong(EpochNanos.NEVER);
+    PacketCourierSimulation simulation =
+        PacketCourierSimulation.configuration()
+            .addNode(
+                NODE_A_NAME,
+                workerManager -> {
+                  workerManager.sendMail(
+                      rootWorkerAddressOf(workerManager, NODE_C_NAME), Packet.of("Unrelated"));
+                  workerManager.sendMail(
+                      rootWorkerAddressOf(workerManager, NODE_B_NAME), Packet.of("Ping"));
+                  workerManager.waitForMail();
+                  pongReceiptTimeNanos.set(simulationReference.get().getCurrentTimeNanos());
+                })
+            .addNode(
+                NODE_B_NAME,
+                workerManager -> {
+                  workerManager.waitForMail();
+                  // Had the clock already jumped to the unrelated delivery, the pong would be sent
+                  // then rather than now.
+                  workerManager.sendMail(
+                      rootWorkerAddressOf(workerManager, NODE_A_NAME), Packet.of("Pong"));
+                })
+            .addNode(NODE_C_NAME, WorkerManager::waitForMail)
+            .addConnection(
+                NODE_A_NAME, NODE_B_NAME, fixedLatency(PING_LATENCY_MILLIS, ChronoUnit.MILLIS))
+            .addConnection(
+                NODE_B_NAME, NODE_A_NAME, fixedLatency(PING_LATENCY_MILLIS, ChronoUnit.MILLIS))
+            .addConnection(
+                NODE_A_NAME, NODE_C_NAME, fixedLatency(UNRELATED_LATENCY_MILLIS, ChronoUnit.MILLIS))
+            .usingEventDrivenClock()
+            .configure();
+    simulationReference.set(simulation);
+    simulation.run();
+    assertThat(pongReceiptTimeNanos.get())
+        .isEqualTo(EpochNanos.toNanos(2 * PING_LATENCY_MILLIS, ChronoUnit.MILLIS));
+    assertThat(simulation.getCurrentTimeNanos())
+        .isEqualTo(EpochNanos.toNanos(UNRELATED_LATENCY_MILLIS, ChronoUnit.MILLIS));
+  }
+
+  @Test(timeout = 10000)
+  public void testEventDrivenClockJumpsStraightToTheNextAsyncTimer() {
+    PacketCourierSimulation simulation =
+        PacketCourierSimulation.configuration()
+            .addAsyncNode(
+                NODE_A_NAME,
+                workerManager ->
+                    workerManager.onTimer(LATENCY_HOURS, TimeUnit.HOURS, workerManager::finish))
+            .usingEventDrivenClock()
+            .configure();
+    simulation.run();
+    assertThat(simulation.getCurrentTimeNanos())
+        .isEqualTo(EpochNanos.toNanos(LATENCY_HOURS, ChronoUnit.HOURS));
+  }
+}
@@ -0,0 +1,64 @@
+package thorpe.luke.network.simulation.example;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import thorpe.luke.log.ConsoleLogger;
+import thorpe.luke.network.packet.NetworkCondition;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.packet.PacketPipeline;
+import thorpe.luke.network.simulation.PacketCourierSimulation;
+import thorpe.luke.network.simulation.worker.AsyncWorkerManager;
+
+public class AsyncExample1 {
+
+  public static final String NODE_A_NAME = "Alice";
+  public static final String NODE_B_NAME = "Bob";
+
+  public static void runNodeA(AsyncWorkerManager workerManager) {
+    // Node A sends the numbers 1 to 10 to node B, then finishes straight away.
+    for (int i = 1; i <= 10; i++) {
+      workerManager.sendMail(
+          workerManager.getTopology().getNodeAddress(NODE_B_NAME).asRootWorkerAddress(),
+          Packet.of("Hello Bob, please print this message containing the number " + i + "."));
+    }
+    workerManager.finish();
+  }
+
+  public static void runNodeB(AsyncWorkerManager workerManager) {
+    // Node B prints messages as they arrive and automatically shuts down after 5 seconds.
+    workerManager.onMail(
+        packet ->
+            packet
+                .tryParse()
+                .ifPresent(
+                    message ->
+                        ConsoleLogger.out()
+                            .log(
+                                workerManager.getAddress()
+                                    + " has received the following message: "
+                                    + message)));
+    workerManager.onTimer(5, TimeUnit.SECONDS, workerManager::finish);
+  }
+
+  public static void main(String[] args) {
+    // Packet pipeline drops half of the packets that travel through it.
+    Random random = new Random();
+    PacketCourierSimulation simulation =
+        PacketCourierSimulation.configuration()
+            .addAsyncNode(NODE_A_NAME, AsyncExample1::runNodeA)
+            .addAsyncNode(NODE_B_NAME, AsyncExample1::runNodeB)
+            .addConnection(
+                NODE_A_NAME,
+                NODE_B_NAME,
+                PacketPipeline.parameters(
+                    NetworkCondition.uniformPacketDrop(0.5, random),
+                    NetworkCondition.uniformPacketLatency(
+                        250.0, 1000.0, ChronoUnit.MILLIS, random)))
+            .addLogger(ConsoleLogger.out())
+            .usingWallClock()
+            .configure();
+    simulation.run();
+    System.out.println("Simulation complete. Exiting elegantly...");
+  }
+}
@@ -0,0 +1,80 @@
+package thorpe.luke.network.simulation.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import thorpe.luke.network.packet.Packet;
+
+public class MailboxTest {
+
+  private static final int MAIL_COUNT = 10000;
+
+  @Test
+  public void testDrainMailTakesAtMostMaxPacketsInOrder() throws InterruptedException {
+    Mailbox mailbox = new Mailbox();
+    for (byte i = 0; i < 5; i++) {
+      mailbox.post(Packet.fromBytes(i));
+    }
+    List<Packet> mail = new ArrayList<>();
+    assertThat(mailbox.drainMail(mail, 3)).isEqualTo(3);
+    assertThat(mail)
+        .containsExactly(
+            Packet.fromBytes((byte) 0), Packet.fromBytes((byte) 1), Packet.fromBytes((byte) 2));
+    assertThat(mailbox.tryReceive()).hasValue(Packet.fromBytes((byte) 3));
+    assertThat(mailbox.pollMail(1, TimeUnit.MILLISECONDS)).hasValue(Packet.fromBytes((byte) 4));
+    assertThat(mailbox.tryReceive()).isEmpty();
+    assertThat(mailbox.pollMail(1, TimeUnit.MILLISECONDS)).isEmpty();
+  }
+
+  @Test(timeout = 10000)
+  public void testDrainMailReturnsImmediatelyWhenThereIsNoMail() {
+    Mailbox mailbox = new Mailbox();
+    List<Packet> mail = new ArrayList<>();
+    assertThat(mailbox.drainMail(mail, 3)).isZero();
+    assertThat(mail).isEmpty();
+  }
+
+  @Test
+  public void testRedirectWhilePostingKeepsMailInOrderOnOneThreadAtATime()
+      throws InterruptedException {
+    Mailbox mailbox = new Mailbox();
+    List<Packet> postedMail = new ArrayList<>();
+    for (int i = 0; i < MAIL_COUNT; i++) {
+      postedMail.add(Packet.of(i));
+    }
+    CountDownLatch halfPosted = new CountDownLatch(1);
+    Thread poster =
+        new Thread(
+            () -> {
+              for (int i = 0; i < MAIL_COUNT; i++) {
+                mailbox.post(postedMail.get(i));
+                if (i == MAIL_COUNT / 2) {
+                  halfPosted.countDown();
+                }
+              }
+            });
+    poster.start();
+    halfPosted.await();
+    List<Packet> redirectedMail = new ArrayList<>();
+    AtomicInteger concurrentDeliveries = new AtomicInteger(0);
+    AtomicBoolean overlapped = new AtomicBoolean(false);
+    mailbox.redirectTo(
+        packet -> {
+          if (concurrentDeliveries.incrementAndGet() > 1) {
+            overlapped.set(true);
+          }
+          redirectedMail.add(packet);
+          Thread.yield();
+          concurrentDeliveries.decrementAndGet();
+        });
+    poster.join();
+    assertThat(overlapped).isFalse();
+    assertThat(redirectedMail).isEqualTo(postedMail);
+  }
+}
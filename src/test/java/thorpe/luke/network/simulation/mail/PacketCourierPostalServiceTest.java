@@ -0,0 +1,218 @@
+package thorpe.luke.network.simulation.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import thorpe.luke.network.packet.NetworkCondition;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.packet.PacketPipeline;
+import thorpe.luke.network.simulation.node.Node;
+import thorpe.luke.network.simulation.node.NodeConnection;
+import thorpe.luke.time.EpochNanos;
+
+public class PacketCourierPostalServiceTest {
+
+  private static final long SEED = 1234L;
+  private static final long START_TIME_NANOS = 0L;
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final int MAIL_TICKS = 200;
+  private static final int MAX_PACKETS_PER_TICK = 4;
+  private static final List<String> NODE_NAMES = Arrays.asList("A", "B", "C", "D", "E");
+  private static final int CONCURRENT_MAIL_COUNT = 2000;
+  private static final int LATENCY_TICKS = 5;
+
+  private static List<RecordingNode> createNodes() {
+    return NODE_NAMES.stream().map(RecordingNode::new).collect(Collectors.toList());
+  }
+
+  private static PacketCourierPostalService createPostalService(
+      List<RecordingNode> nodes, int tickParallelism, Random random) {
+    Map<NodeConnection, PacketPipeline<Mail>> nodeConnectionToPacketPipelineMap =
+        new LinkedHashMap<>();
+    for (Node source : nodes) {
+      for (Node destination : nodes) {
+        if (source != destination) {
+          nodeConnectionToPacketPipelineMap.put(
+              new NodeConnection(source, destination),
+              new PacketPipeline<>(
+                  PacketPipeline.parameters(
+                      NetworkCondition.uniformPacketDrop(0.2, random),
+                      NetworkCondition.uniformPacketCorruption(0.1, random),
+                      NetworkCondition.poissonPacketDuplication(0.5, random),
+                      NetworkCondition.uniformPacketLatency(0.0, 50.0, ChronoUnit.MILLIS, random)),
+                  START_TIME_NANOS));
+        }
+      }
+    }
+    return new PacketCourierPostalService(
+        new ArrayList<>(nodes), nodeConnectionToPacketPipelineMap, tickParallelism);
+  }
+
+  private static Map<String, List<Packet>> deliverMail(int tickParallelism) {
+    List<RecordingNode> nodes = createNodes();
+    PacketCourierPostalService postalService =
+        createPostalService(nodes, tickParallelism, new Random(SEED));
+    long nowNanos = START_TIME_NANOS;
+    for (int i = 0; i < MAIL_TICKS; i++) {
+      for (RecordingNode source : nodes) {
+        for (RecordingNode destination : nodes) {
+          postalService.mail(
+              source.getAddress().asRootWorkerAddress(),
+              destination.getAddress().asRootWorkerAddress(),
+              Packet.of(source.getAddress().getName() + i));
+        }
+      }
+      postalService.tick(nowNanos, MAX_PACKETS_PER_TICK);
+      nowNanos += TICK_NANOS;
+    }
+    while (postalService.peekNextDeliveryTimeNanos() != EpochNanos.NEVER) {
+      postalService.tick(nowNanos, MAX_PACKETS_PER_TICK);
+      nowNanos += TICK_NANOS;
+    }
+    postalService.shutdown();
+    return nodes
+        .stream()
+        .collect(
+            Collectors.toMap(
+                node -> node.getAddress().getName(), RecordingNode::getDeliveredPackets));
+  }
+
+  @Test
+  public void testParallelTicksDeliverTheSameMailInTheSameOrder() {
+    Map<String, List<Packet>> sequentialDeliveries = deliverMail(1);
+    Map<String, List<Packet>> parallelDeliveries = deliverMail(4);
+    assertThat(sequentialDeliveries.values())
+        .allSatisfy(packets -> assertThat(packets).isNotEmpty());
+    assertThat(parallelDeliveries).isEqualTo(sequentialDeliveries);
+  }
+
+  private static List<List<String>> getDestinationNamesByShard(int tickParallelism) {
+    PacketCourierPostalService postalService =
+        createPostalService(createNodes(), tickParallelism, new Random(SEED));
+    postalService.shutdown();
+    return postalService.getDestinationNamesByShard();
+  }
+
+  @Test
+  public void testDestinationsAreDealtOutToShardsInNameOrder() {
+    assertThat(getDestinationNamesByShard(1)).containsExactly(NODE_NAMES);
+    assertThat(getDestinationNamesByShard(2))
+        .containsExactly(Arrays.asList("A", "C", "E"), Arrays.asList("B", "D"));
+    // There are never more shards than there are destinations.
+    assertThat(getDestinationNamesByShard(8)).hasSize(NODE_NAMES.size());
+  }
+
+  @Test(timeout = 30000)
+  public void testIdleRouteWokenByConcurrentMailStillDeliversOnTime() throws InterruptedException {
+    AtomicLong currentTick = new AtomicLong(0);
+    AtomicLong lastCompletedTick = new AtomicLong(-1);
+    long[] deliveryTicks = new long[CONCURRENT_MAIL_COUNT];
+    Arrays.fill(deliveryTicks, -1);
+    Node source = new Node("A");
+    Node destination =
+        new Node("B") {
+          @Override
+          public void deliver(Mail mail) {
+            int i = mail.getPacket().tryParse(Integer.class).get();
+            deliveryTicks[i] = currentTick.get();
+          }
+        };
+    PacketCourierPostalService postalService =
+        new PacketCourierPostalService(
+            Arrays.asList(source, destination),
+            Collections.singletonMap(
+                new NodeConnection(source, destination),
+                new PacketPipeline<>(
+                    PacketPipeline.parameters(
+                        NetworkCondition.uniformPacketLatency(
+                            LATENCY_TICKS, LATENCY_TICKS, ChronoUnit.MILLIS, new Random(SEED))),
+                    START_TIME_NANOS)));
+
+    // Each packet is first seen by a tick that starts after it is mailed, and no later than the
+    // second tick to complete after it was mailed.
+    long[] earliestTicks = new long[CONCURRENT_MAIL_COUNT];
+    long[] latestTicks = new long[CONCURRENT_MAIL_COUNT];
+    Thread sender =
+        new Thread(
+            () -> {
+              Random random = new Random(SEED);
+              for (int i = 0; i < CONCURRENT_MAIL_COUNT; i++) {
+                earliestTicks[i] = lastCompletedTick.get() + 1;
+                postalService.mail(
+                    source.getAddress().asRootWorkerAddress(),
+                    destination.getAddress().asRootWorkerAddress(),
+                    Packet.of(i));
+                latestTicks[i] = lastCompletedTick.get() + 2;
+                if (random.nextInt(4) == 0) {
+                  // Waits for the route to go idle, so that the next packet has to wake it up.
+                  long idleTick = latestTicks[i] + 2 * LATENCY_TICKS;
+                  while (lastCompletedTick.get() < idleTick) {
+                    Thread.yield();
+                  }
+                }
+              }
+            });
+    sender.start();
+    long tick = 0;
+    while (sender.isAlive() || postalService.peekNextDeliveryTimeNanos() != EpochNanos.NEVER) {
+      currentTick.set(tick);
+      postalService.tick(START_TIME_NANOS + tick * TICK_NANOS, CONCURRENT_MAIL_COUNT);
+      lastCompletedTick.set(tick);
+      tick++;
+    }
+    sender.join();
+    postalService.shutdown();
+
+    for (int i = 0; i < CONCURRENT_MAIL_COUNT; i++) {
+      assertThat(deliveryTicks[i] - LATENCY_TICKS)
+          .as("Tick at which packet #%d was first seen", i)
+          .isBetween(earliestTicks[i], latestTicks[i]);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testAwaitMailWakesUpWhenMailArrives() throws InterruptedException {
+    List<RecordingNode> nodes = createNodes();
+    PacketCourierPostalService postalService = createPostalService(nodes, 1, new Random(SEED));
+    Thread sender =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                return;
+              }
+              postalService.mail(
+                  nodes.get(0).getAddress().asRootWorkerAddress(),
+                  nodes.get(1).getAddress().asRootWorkerAddress(),
+                  Packet.of("Wake up"));
+            });
+    sender.start();
+    postalService.awaitMail(TimeUnit.SECONDS.toNanos(30));
+    sender.join();
+    assertThat(postalService.peekNextDeliveryTimeNanos()).isEqualTo(EpochNanos.IMMEDIATELY);
+    postalService.shutdown();
+  }
+
+  private static class RecordingNode extends Node {
+    private final List<Packet> deliveredPackets = Collections.synchronizedList(new ArrayList<>());
+
+    private RecordingNode(String name) {
+      super(name);
+    }
+
+    public List<Packet> getDeliveredPackets() {
+      return deliveredPackets;
+    }
+
+    @Override
+    public void deliver(Mail mail) {
+      deliveredPackets.add(mail.getPacket());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package thorpe.luke.network.simulation.worker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.network.simulation.node.NodeAddress;
+import thorpe.luke.time.EpochNanos;
+
+public class AsyncWorkerTest {
+
+  private static final int MAIL_COUNT = 1000;
+
+  private static AsyncWorker startWorker(
+      String name, AsyncWorkerScheduler scheduler, AsyncWorkerScript workerScript) {
+    AsyncWorker worker =
+        new AsyncWorker(
+            workerScript,
+            new NodeAddress(name).asRootWorkerAddress(),
+            null,
+            new WorkerAddressGenerator(),
+            new WorkerAddressBook(),
+            (sourceAddress, destinationAddress, packet) -> false,
+            scheduler);
+    worker.start();
+    return worker;
+  }
+
+  @Test
+  public void testMailIsHandledInOrderAcrossBatches() throws InterruptedException {
+    AsyncWorkerScheduler scheduler = new AsyncWorkerScheduler(4, 8);
+    List<Packet> handledMail = new ArrayList<>();
+    CountDownLatch latch = new CountDownLatch(MAIL_COUNT);
+    AsyncWorker worker =
+        startWorker(
+            "Alice",
+            scheduler,
+            workerManager ->
+                workerManager.onMail(
+                    packet -> {
+                      handledMail.add(packet);
+                      latch.countDown();
+                    }));
+    List<Packet> postedMail = new ArrayList<>();
+    for (int i = 0; i < MAIL_COUNT; i++) {
+      Packet packet = Packet.of(i);
+      postedMail.add(packet);
+      worker.post(packet);
+    }
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(handledMail).isEqualTo(postedMail);
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testFloodedWorkerYieldsAfterEachBatch() {
+    Queue<Runnable> turns = new ArrayDeque<>();
+    AsyncWorkerScheduler scheduler = new AsyncWorkerScheduler(turns::offer, null, 4);
+    List<String> handledMail = new ArrayList<>();
+    AsyncWorkerScript workerScript =
+        workerManager ->
+            workerManager.onMail(
+                packet ->
+                    handledMail.add(workerManager.getAddress().getHostingNodeAddress().getName()));
+    AsyncWorker alice = startWorker("Alice", scheduler, workerScript);
+    AsyncWorker bob = startWorker("Bob", scheduler, workerScript);
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    for (int i = 0; i < 10; i++) {
+      alice.post(Packet.of(i));
+    }
+    bob.post(Packet.of(0));
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    // Alice's first 4 packets fill her first batch, after which Bob gets his turn.
+    assertThat(handledMail).hasSize(11);
+    assertThat(handledMail.indexOf("Bob")).isEqualTo(4);
+  }
+
+  @Test
+  public void testWorkerFailsButKeepsDispatchingAfterAnError() {
+    Queue<Runnable> turns = new ArrayDeque<>();
+    AsyncWorkerScheduler scheduler = new AsyncWorkerScheduler(turns::offer, null, 4);
+    AssertionError error = new AssertionError("Handler failed.");
+    AsyncWorker worker =
+        startWorker(
+            "Alice",
+            scheduler,
+            workerManager ->
+                workerManager.onMail(
+                    packet -> {
+                      throw error;
+                    }));
+    worker.post(Packet.of(0));
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    assertThatThrownBy(() -> worker.getCompletion().join()).hasCauseReference(error);
+    // Later mail still wakes up the dispatcher, rather than being queued forever.
+    worker.post(Packet.of(1));
+    assertThat(turns).hasSize(1);
+  }
+
+  @Test
+  public void testSimulatedTimerFiresInSimulatedTime() {
+    Queue<Runnable> turns = new ArrayDeque<>();
+    SimulatedTimer timer = new SimulatedTimer(0L);
+    AsyncWorkerScheduler scheduler = new AsyncWorkerScheduler(turns::offer, timer, 4);
+    List<String> firedTimers = new ArrayList<>();
+    startWorker(
+        "Alice",
+        scheduler,
+        workerManager -> {
+          workerManager.onTimer(2, TimeUnit.SECONDS, () -> firedTimers.add("Second"));
+          workerManager.onTimer(1, TimeUnit.SECONDS, () -> firedTimers.add("First"));
+          workerManager
+              .onTimer(3, TimeUnit.SECONDS, () -> firedTimers.add("Cancelled"))
+              .cancel(false);
+        });
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    assertThat(timer.peekNextTimeNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    timer.tick(TimeUnit.SECONDS.toNanos(1));
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    assertThat(firedTimers).containsExactly("First");
+    timer.tick(TimeUnit.SECONDS.toNanos(10));
+    while (!turns.isEmpty()) {
+      turns.poll().run();
+    }
+    assertThat(firedTimers).containsExactly("First", "Second");
+    assertThat(timer.peekNextTimeNanos()).isEqualTo(EpochNanos.NEVER);
+  }
+}
@@ -0,0 +1,88 @@
+package thorpe.luke.network.simulation.worker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import thorpe.luke.network.packet.Packet;
+import thorpe.luke.util.ByteUtils;
+
+public class DatagramForwarderTest {
+
+  private static final long RECEIVE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private DatagramChannel publicChannel;
+  private DatagramChannel privateChannel;
+  private InetAddress privateIpAddress;
+
+  @Before
+  public void setUp() throws IOException {
+    InetAddress loopbackAddress = InetAddress.getByName("127.0.0.1");
+    publicChannel = DatagramChannel.open().bind(new InetSocketAddress(loopbackAddress, 0));
+    publicChannel.configureBlocking(false);
+    privateChannel = DatagramChannel.open().bind(new InetSocketAddress(loopbackAddress, 0));
+    privateChannel.configureBlocking(false);
+    privateIpAddress = InetAddress.getByName("127.0.0.2");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    publicChannel.close();
+    privateChannel.close();
+  }
+
+  private static Packet packetFrom(InetAddress sourceIpAddress, byte... bytes) {
+    return Packet.fromBuffer(ByteBuffer.wrap(bytes), ByteUtils.toInt(sourceIpAddress.getAddress()));
+  }
+
+  private byte[] receive() throws IOException {
+    ByteBuffer receiveBuffer = ByteBuffer.allocate(64);
+    long deadlineNanos = System.nanoTime() + RECEIVE_TIMEOUT_NANOS;
+    SocketAddress sourceSocketAddress;
+    while ((sourceSocketAddress = privateChannel.receive(receiveBuffer)) == null) {
+      if (System.nanoTime() > deadlineNanos) {
+        return null;
+      }
+      Thread.yield();
+    }
+    assertThat(sourceSocketAddress).isEqualTo(publicChannel.getLocalAddress());
+    ((Buffer) receiveBuffer).flip();
+    byte[] bytes = new byte[receiveBuffer.remaining()];
+    receiveBuffer.get(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void testPacketIsSentThroughThePublicChannelOfItsSource() throws IOException {
+    DatagramForwarder datagramForwarder = new DatagramForwarder();
+    datagramForwarder.register(privateIpAddress, publicChannel);
+    datagramForwarder.forward(
+        packetFrom(privateIpAddress, (byte) 1, (byte) 2, (byte) 3),
+        (InetSocketAddress) privateChannel.getLocalAddress());
+    assertThat(receive()).containsExactly(1, 2, 3);
+    assertThat(datagramForwarder.getDroppedDatagramCount()).isZero();
+  }
+
+  @Test
+  public void testPacketFromUnregisteredSourceIsNotSent() throws IOException {
+    DatagramForwarder datagramForwarder = new DatagramForwarder();
+    datagramForwarder.register(privateIpAddress, publicChannel);
+    datagramForwarder.forward(
+        packetFrom(InetAddress.getByName("127.0.0.3"), (byte) 1),
+        (InetSocketAddress) privateChannel.getLocalAddress());
+    datagramForwarder.forward(
+        packetFrom(privateIpAddress, (byte) 2),
+        (InetSocketAddress) privateChannel.getLocalAddress());
+    // Datagrams on the loopback interface arrive in order, so the first one would have come first.
+    assertThat(receive()).containsExactly(2);
+  }
+}
@@ -0,0 +1,49 @@
+package thorpe.luke.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AlarmTest {
+
+  private static final long LONG_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+  private static final long SHORT_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  @Test(timeout = 10000)
+  public void testRingWakesUpSleeperEarly() throws InterruptedException {
+    Alarm alarm = new Alarm();
+    Thread ringer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                return;
+              }
+              alarm.ring();
+            });
+    ringer.start();
+    alarm.sleepFor(LONG_TIMEOUT_NANOS);
+    ringer.join();
+  }
+
+  @Test
+  public void testSleepLastsUntilTimeoutWithoutRing() {
+    Alarm alarm = new Alarm();
+    long startNanoTime = System.nanoTime();
+    alarm.sleepFor(SHORT_TIMEOUT_NANOS);
+    assertThat(System.nanoTime() - startNanoTime).isGreaterThanOrEqualTo(SHORT_TIMEOUT_NANOS);
+  }
+
+  @Test(timeout = 10000)
+  public void testRingBeforeSleepIsNotLost() {
+    Alarm alarm = new Alarm();
+    alarm.ring();
+    alarm.sleepFor(LONG_TIMEOUT_NANOS);
+    // The ring is used up by the sleep that noticed it.
+    long startNanoTime = System.nanoTime();
+    alarm.sleepFor(SHORT_TIMEOUT_NANOS);
+    assertThat(System.nanoTime() - startNanoTime).isGreaterThanOrEqualTo(SHORT_TIMEOUT_NANOS);
+  }
+}
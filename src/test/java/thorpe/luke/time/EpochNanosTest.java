@@ -0,0 +1,34 @@
+package thorpe.luke.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.junit.Test;
+
+public class EpochNanosTest {
+
+  @Test
+  public void testLocalDateTimeRoundTrip() {
+    LocalDateTime time = LocalDateTime.of(2021, 3, 14, 15, 9, 26, 535_897_932);
+    assertThat(EpochNanos.toLocalDateTime(EpochNanos.of(time))).isEqualTo(time);
+    assertThat(EpochNanos.of(LocalDateTime.of(1970, 1, 1, 0, 0))).isEqualTo(0L);
+  }
+
+  @Test
+  public void testOutOfRangeTimesSaturate() {
+    assertThat(EpochNanos.of(LocalDateTime.MIN)).isEqualTo(EpochNanos.IMMEDIATELY);
+    assertThat(EpochNanos.of(LocalDateTime.MAX)).isEqualTo(EpochNanos.NEVER);
+    assertThat(EpochNanos.plus(EpochNanos.NEVER - 1, 2)).isEqualTo(EpochNanos.NEVER);
+    assertThat(EpochNanos.plus(EpochNanos.IMMEDIATELY + 1, -2)).isEqualTo(EpochNanos.IMMEDIATELY);
+    assertThat(EpochNanos.toNanos(1, ChronoUnit.FOREVER)).isEqualTo(EpochNanos.NEVER);
+    assertThat(EpochNanos.toNanos(1.0, ChronoUnit.ERAS)).isEqualTo(EpochNanos.NEVER);
+  }
+
+  @Test
+  public void testFractionalUnitsAreConvertedExactly() {
+    assertThat(EpochNanos.toNanos(0.25, ChronoUnit.MILLIS)).isEqualTo(250_000L);
+    assertThat(EpochNanos.toNanos(1.5, ChronoUnit.SECONDS)).isEqualTo(1_500_000_000L);
+    assertThat(EpochNanos.toNanos(3, ChronoUnit.MICROS)).isEqualTo(3_000L);
+  }
+}
@@ -0,0 +1,34 @@
+package thorpe.luke.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class MonotonicClockTest {
+
+  private static final long START_TIME_NANOS = EpochNanos.of(LocalDateTime.of(2021, 1, 1, 0, 0));
+
+  @Test
+  public void testClockStartsAtStartTimeAndNeverGoesBackwards() {
+    MonotonicClock clock = new MonotonicClock(START_TIME_NANOS);
+    long previousNanos = clock.nowNanos();
+    assertThat(previousNanos).isGreaterThanOrEqualTo(START_TIME_NANOS);
+    for (int i = 0; i < 10000; i++) {
+      long nowNanos = clock.nowNanos();
+      assertThat(nowNanos).isGreaterThanOrEqualTo(previousNanos);
+      previousNanos = nowNanos;
+    }
+  }
+
+  @Test
+  public void testClockAdvancesWithElapsedTime() throws InterruptedException {
+    long startNanoTime = System.nanoTime();
+    MonotonicClock clock = new MonotonicClock(START_TIME_NANOS);
+    Thread.sleep(50);
+    long elapsedNanos = clock.nowNanos() - START_TIME_NANOS;
+    assertThat(elapsedNanos).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    assertThat(elapsedNanos).isLessThanOrEqualTo(System.nanoTime() - startNanoTime);
+  }
+}
@@ -0,0 +1,78 @@
+package thorpe.luke.time;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  public void testEqualDeadlinesAreFifo() {
+    TimingWheel<String> timingWheel = new TimingWheel<>(TICK_NANOS, 0L);
+    long deadline = TimeUnit.SECONDS.toNanos(70);
+    timingWheel.schedule(deadline, "first");
+    timingWheel.schedule(deadline, "second");
+    timingWheel.poll(TimeUnit.SECONDS.toNanos(69));
+    timingWheel.schedule(deadline, "third");
+    assertThat(timingWheel.poll(deadline - 1)).isNull();
+    assertThat(timingWheel.poll(deadline)).isEqualTo("first");
+    assertThat(timingWheel.poll(deadline)).isEqualTo("second");
+    assertThat(timingWheel.poll(deadline)).isEqualTo("third");
+    assertThat(timingWheel.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testDeadlinesBeyondTheHorizonAndInThePast() {
+    TimingWheel<String> timingWheel = new TimingWheel<>(TICK_NANOS, 0L);
+    long farFuture = TimeUnit.DAYS.toNanos(400);
+    timingWheel.schedule(farFuture, "far");
+    timingWheel.schedule(EpochNanos.IMMEDIATELY, "overdue");
+    assertThat(timingWheel.peekNextDeadlineNanos()).isEqualTo(EpochNanos.IMMEDIATELY);
+    assertThat(timingWheel.poll(0L)).isEqualTo("overdue");
+    assertThat(timingWheel.peekNextDeadlineNanos()).isEqualTo(farFuture);
+    assertThat(timingWheel.poll(farFuture - 1)).isNull();
+    assertThat(timingWheel.poll(farFuture)).isEqualTo("far");
+    assertThat(timingWheel.peekNextDeadlineNanos()).isEqualTo(EpochNanos.NEVER);
+  }
+
+  @Test
+  public void testPollingMatchesDeadlineOrder() {
+    Random random = new Random(0);
+    TimingWheel<long[]> timingWheel = new TimingWheel<>(TICK_NANOS, 0L);
+    List<long[]> expected = new ArrayList<>();
+    List<long[]> actual = new ArrayList<>();
+    long nowNanos = 0L;
+    for (int i = 0; i < 100_000; i++) {
+      if (random.nextInt(3) > 0) {
+        long latencyNanos = (long) (Math.pow(random.nextDouble(), 4) * TimeUnit.DAYS.toNanos(60));
+        long[] deadlineAndSequenceNumber = {nowNanos + latencyNanos, i};
+        timingWheel.schedule(deadlineAndSequenceNumber[0], deadlineAndSequenceNumber);
+        expected.add(deadlineAndSequenceNumber);
+      }
+      long nextDeadlineNanos = timingWheel.peekNextDeadlineNanos();
+      nowNanos =
+          random.nextBoolean() && nextDeadlineNanos != EpochNanos.NEVER
+              ? Math.max(nowNanos, nextDeadlineNanos)
+              : nowNanos + random.nextInt((int) TimeUnit.MILLISECONDS.toNanos(5));
+      for (long[] next = timingWheel.poll(nowNanos); next != null; ) {
+        assertThat(next[0]).isLessThanOrEqualTo(nowNanos);
+        actual.add(next);
+        next = timingWheel.poll(nowNanos);
+      }
+    }
+    for (long[] next = timingWheel.poll(Long.MAX_VALUE - 1); next != null; ) {
+      actual.add(next);
+      next = timingWheel.poll(Long.MAX_VALUE - 1);
+    }
+    expected.sort(
+        Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+}
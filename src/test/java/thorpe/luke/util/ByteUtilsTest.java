@@ -62,6 +62,12 @@ public class ByteUtilsTest {
     assertThat(deserializedTestObject).isEqualTo(testObject);
   }
 
+  @Test
+  public void testToInt() {
+    assertThat(ByteUtils.toInt(new byte[] {127, 0, 0, 1})).isEqualTo(0x7F000001);
+    assertThat(ByteUtils.toInt(new byte[] {(byte) 0xFF, (byte) 0x80})).isEqualTo(0xFF80);
+  }
+
   @Test
   public void testFlip() {
     byte byte0 = 0b00000000;
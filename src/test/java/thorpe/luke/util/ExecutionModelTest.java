@@ -0,0 +1,35 @@
+package thorpe.luke.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class ExecutionModelTest {
+
+  private static void assertRunsNamedThreads(ExecutionModel executionModel)
+      throws InterruptedException {
+    AtomicBoolean hasRun = new AtomicBoolean(false);
+    Thread thread = executionModel.newThread(() -> hasRun.set(true), "worker");
+    assertThat(thread.getName()).isEqualTo("worker");
+    thread.start();
+    thread.join();
+    assertThat(hasRun).isTrue();
+  }
+
+  @Test
+  public void testPlatformThreadsRunNamedThreads() throws InterruptedException {
+    assertRunsNamedThreads(ExecutionModel.platformThreads());
+  }
+
+  @Test
+  public void testVirtualThreadsRunNamedThreadsWhenSupported() throws InterruptedException {
+    if (ExecutionModel.isVirtualThreadSupported()) {
+      assertRunsNamedThreads(ExecutionModel.virtualThreads());
+    } else {
+      assertThatThrownBy(ExecutionModel::virtualThreads)
+          .isInstanceOf(UnsupportedOperationException.class);
+    }
+  }
+}
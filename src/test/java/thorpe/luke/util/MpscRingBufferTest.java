@@ -0,0 +1,60 @@
+package thorpe.luke.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class MpscRingBufferTest {
+
+  @Test
+  public void testOfferFailsOnceFull() {
+    MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(3);
+    assertThat(ringBuffer.capacity()).isEqualTo(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(ringBuffer.offer(i)).isTrue();
+    }
+    assertThat(ringBuffer.offer(4)).isFalse();
+    assertThat(ringBuffer.poll()).isEqualTo(0);
+    assertThat(ringBuffer.offer(4)).isTrue();
+    assertThat(ringBuffer).containsExactly(1, 2, 3, 4);
+  }
+
+  @Test
+  public void testConcurrentProducersLoseNothingAndKeepTheirOwnOrder() throws InterruptedException {
+    int producerCount = 4;
+    int valuesPerProducer = 10_000;
+    MpscRingBuffer<int[]> ringBuffer = new MpscRingBuffer<>(64);
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < producerCount; producer++) {
+      int producerId = producer;
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < valuesPerProducer; i++) {
+                  int[] value = {producerId, i};
+                  while (!ringBuffer.offer(value)) {
+                    Thread.yield();
+                  }
+                }
+              });
+      producers.add(thread);
+      thread.start();
+    }
+    int[] nextExpectedValues = new int[producerCount];
+    int received = 0;
+    while (received < producerCount * valuesPerProducer) {
+      int[] value = ringBuffer.poll();
+      if (value == null) {
+        continue;
+      }
+      assertThat(value[1]).isEqualTo(nextExpectedValues[value[0]]++);
+      received++;
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    assertThat(ringBuffer.isEmpty()).isTrue();
+  }
+}
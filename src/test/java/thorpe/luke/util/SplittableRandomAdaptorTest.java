@@ -0,0 +1,41 @@
+package thorpe.luke.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class SplittableRandomAdaptorTest {
+
+  private static final int SAMPLE_SIZE = 1000;
+
+  private static long[] sample(Random random) {
+    return IntStream.range(0, SAMPLE_SIZE).mapToLong(i -> random.nextLong()).toArray();
+  }
+
+  @Test
+  public void testSplitsFromTheSameSeedAreReproducibleAndIndependent() {
+    SplittableRandomAdaptor random = new SplittableRandomAdaptor(42L);
+    SplittableRandomAdaptor sameRandom = new SplittableRandomAdaptor(42L);
+    SplittableRandomAdaptor firstSplit = SplittableRandomAdaptor.splitFrom(random);
+    SplittableRandomAdaptor secondSplit = SplittableRandomAdaptor.splitFrom(random);
+
+    long[] firstSample = sample(firstSplit);
+    long[] secondSample = sample(secondSplit);
+
+    assertThat(firstSample).isEqualTo(sample(sameRandom.split()));
+    assertThat(secondSample).isEqualTo(sample(sameRandom.split()));
+    assertThat(firstSample).isNotEqualTo(secondSample);
+  }
+
+  @Test
+  public void testBoundedDrawsStayWithinBounds() {
+    Random random = new SplittableRandomAdaptor(7L);
+    for (int i = 0; i < SAMPLE_SIZE; i++) {
+      assertThat(random.nextInt(10)).isBetween(0, 9);
+      assertThat(random.nextDouble()).isGreaterThanOrEqualTo(0.0).isLessThan(1.0);
+      assertThat(random.nextFloat()).isGreaterThanOrEqualTo(0.0f).isLessThan(1.0f);
+    }
+  }
+}